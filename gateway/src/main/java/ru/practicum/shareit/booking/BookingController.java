@@ -3,15 +3,22 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -19,7 +26,10 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_DECISIONS = 1000;
+
     private final BookingClient client;
+    private final BookingStreamClient streamClient;
 
     @PostMapping
     public ResponseEntity<Object> add(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -28,6 +38,14 @@ public class BookingController {
         return client.add(userId, requestDto);
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public Flux<ServerSentEvent<String>> stream(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Subscribe to booking events, userId={}, lastEventId={}", userId, lastEventId);
+        return streamClient.stream(userId, lastEventId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") long userId,
                                           @PathVariable Long bookingId) {
@@ -39,22 +57,24 @@ public class BookingController {
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                         @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return client.getAll(userId, state, from, size);
+        return client.getAll(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
                                                @RequestParam(value = "state", defaultValue = "ALL", required = false) String stateParam,
                                                @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                               @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
+                                               @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+                                               @RequestParam(value = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("");
-        return client.getAllByUser(userId, state, from, size);
+        return client.getAllByUser(userId, state, from, size, cursor);
     }
 
     @PatchMapping("/{bookingId}")
@@ -64,4 +84,11 @@ public class BookingController {
         log.info("");
         return client.accept(bookingId, userId, approved);
     }
+
+    @PatchMapping
+    public ResponseEntity<Object> acceptAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                            @Size(min = 1, max = MAX_DECISIONS) @RequestBody List<@Valid BookingDecisionDto> decisions) {
+        log.info("Set status for {} bookings, userId={}", decisions.size(), userId);
+        return client.acceptAll(userId, decisions);
+    }
 }
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+@Service
+public class BookingStreamClient {
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    public BookingStreamClient(@Value("${shareit-server.url}") String serverUrl,
+                               @Value("${shareit.bookings.stream.max-connections}") int maxConnections,
+                               @Value("${shareit.bookings.stream.pending-acquire-timeout-ms}") long pendingAcquireTimeoutMs,
+                               WebClient.Builder builder) {
+        this.connectionProvider = ConnectionProvider.builder("booking-stream")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .build();
+        this.webClient = builder
+                .baseUrl(serverUrl + "/bookings")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    public Flux<ServerSentEvent<String>> stream(long userId, @Nullable String lastEventId) {
+        return webClient.get()
+                .uri("/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .headers(headers -> {
+                    if (lastEventId != null) headers.set("Last-Event-ID", lastEventId);
+                })
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE);
+    }
+}
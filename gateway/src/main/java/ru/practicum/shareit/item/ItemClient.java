@@ -11,6 +11,9 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -31,16 +34,20 @@ public class ItemClient extends BaseClient {
         return post("", userId, itemDto);
     }
 
+    public ResponseEntity<Object> addAll(long userId, List<ItemDto> itemDtos) {
+        return post("/batch", userId, itemDtos);
+    }
+
     public ResponseEntity<Object> getById(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAll(long userId, int from, int size) {
-        Map<String, Object> params = Map.of(
+    public ResponseEntity<Object> getAll(long userId, int from, int size, String cursor) {
+        Map<String, Object> params = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, params);
+        ));
+        return get(withCursor("?from={from}&size={size}", params, cursor), userId, params);
     }
 
     public ResponseEntity<Object> search(String text, int from, int size) {
@@ -52,6 +59,14 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", params);
     }
 
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> params = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", params);
+    }
+
     public ResponseEntity<Object> update(long userId, ItemDto itemDto, long itemId) {
         return patch("/" + itemId, userId, itemDto);
     }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -9,8 +10,15 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.validation.ValidationException;
+import javax.validation.Validator;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -18,7 +26,11 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 50000;
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+
     private final ItemClient client;
+    private final Validator validator;
 
     @PostMapping
     public ResponseEntity<Object> add(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -27,6 +39,21 @@ public class ItemController {
         return client.add(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                         @Size(min = 1, max = MAX_BATCH_SIZE) @RequestBody List<ItemDto> itemDtos) {
+        String errors = IntStream.range(0, itemDtos.size())
+                .boxed()
+                .flatMap(i -> validator.validate(itemDtos.get(i), ItemDto.NewItem.class).stream()
+                        .map(violation -> String.format("[%d].%s: %s", i, violation.getPropertyPath(), violation.getMessage())))
+                .collect(Collectors.joining("; "));
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+        log.info("Items batch of {} add by user {}", itemDtos.size(), userId);
+        return client.addAll(userId, itemDtos);
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> get(@PathVariable long itemId,
                                       @RequestHeader("X-Sharer-User-Id") long userId) {
@@ -37,9 +64,10 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                         @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
+                                         @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+                                         @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("Get all items");
-        return client.getAll(userId, from, size);
+        return client.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/search")
@@ -50,6 +78,20 @@ public class ItemController {
         return client.search(text, from, size);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable long itemId,
+                                                  @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("End of availability window must be after start");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to)) {
+            throw new ValidationException(String.format("Availability window must not exceed %d days", MAX_AVAILABILITY_DAYS));
+        }
+        log.info("Get availability of item {} from {} to {}", itemId, from, to);
+        return client.getAvailability(itemId, from, to);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @RequestBody ItemDto itemDto,
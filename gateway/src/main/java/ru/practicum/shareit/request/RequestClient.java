@@ -10,6 +10,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -42,12 +43,12 @@ public class RequestClient extends BaseClient {
         return get("?from={from}&size={size}", userId, param);
     }
 
-    public ResponseEntity<Object> getAll(long userId, int from, int size) {
-        Map<String, Object> param = Map.of(
+    public ResponseEntity<Object> getAll(long userId, int from, int size, String cursor) {
+        Map<String, Object> param = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, param);
+        ));
+        return get(withCursor("/all?from={from}&size={size}", param, cursor), userId, param);
     }
 
     public ResponseEntity<Object> delete(long userId, long requestId) {
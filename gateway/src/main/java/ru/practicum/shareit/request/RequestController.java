@@ -45,9 +45,10 @@ public class RequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
                                          @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                         @Positive @RequestParam(value = "size", defaultValue = "20", required = false) int size) {
+                                         @Positive @RequestParam(value = "size", defaultValue = "20", required = false) int size,
+                                         @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("Get all requests by user {}", userId);
-        return client.getAll(userId, from, size);
+        return client.getAll(userId, from, size, cursor);
     }
 
     @DeleteMapping("/{requestId}")
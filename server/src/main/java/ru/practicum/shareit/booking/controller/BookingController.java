@@ -2,11 +2,18 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.BookState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.stream.BookingStreamHub;
+import ru.practicum.shareit.pagination.Cursor;
 
 import java.util.List;
 
@@ -16,6 +23,7 @@ import java.util.List;
 @Slf4j
 public class BookingController {
     private final BookingService service;
+    private final BookingStreamHub streamHub;
 
     @PostMapping
     public ResponseBookingDto add(@RequestBody RequestBookingDto requestBookingDto,
@@ -32,6 +40,20 @@ public class BookingController {
         return service.accept(bookingId, userId, approved);
     }
 
+    @PatchMapping
+    public List<BookingDecisionResultDto> acceptAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("User {} set status for {} bookings", userId, decisions.size());
+        return service.acceptAll(userId, decisions);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") long userId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("User {} subscribed to booking events after {}", userId, lastEventId);
+        return streamHub.subscribe(userId, lastEventId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseBookingDto get(@RequestHeader("X-Sharer-User-Id") long userId,
                                   @PathVariable long bookingId) {
@@ -40,20 +62,28 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<ResponseBookingDto> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestParam(value = "state", defaultValue = "ALL", required = false) BookState state,
-                                           @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                           @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
+    public ResponseEntity<List<ResponseBookingDto>> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @RequestParam(value = "state", defaultValue = "ALL", required = false) BookState state,
+                                                           @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+                                                           @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+                                                           @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("User {} get all {} bookings", userId, state);
-        return service.getAll(userId, state, from, size);
+        List<ResponseBookingDto> bookings = cursor == null
+                ? service.getAll(userId, state, from, size)
+                : service.getAll(userId, state, Cursor.decode(cursor), size);
+        return Cursor.withNextCursor(bookings, size, booking -> new Cursor(booking.getStart(), booking.getId()));
     }
 
     @GetMapping("/owner")
-    public List<ResponseBookingDto> getAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @RequestParam(value = "state", defaultValue = "ALL", required = false) BookState state,
-                                                 @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                                 @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
+    public ResponseEntity<List<ResponseBookingDto>> getAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                 @RequestParam(value = "state", defaultValue = "ALL", required = false) BookState state,
+                                                                 @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+                                                                 @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+                                                                 @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("User {} get {} bookings on his items", userId, state);
-        return service.getAllByUser(userId, state, from, size);
+        List<ResponseBookingDto> bookings = cursor == null
+                ? service.getAllByUser(userId, state, from, size)
+                : service.getAllByUser(userId, state, Cursor.decode(cursor), size);
+        return Cursor.withNextCursor(bookings, size, booking -> new Cursor(booking.getStart(), booking.getId()));
     }
 }
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking.dto;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 
 @UtilityClass
@@ -19,6 +22,29 @@ public class BookingMapper {
         return dto;
     }
 
+    public static ResponseBookingDto toResponseBookingDto(ArchivedBooking booking) {
+        ResponseBookingDto dto = new ResponseBookingDto();
+        dto.setId(booking.getId());
+        dto.setStart(booking.getStart());
+        dto.setEnd(booking.getEnd());
+        dto.setItem(ItemMapper.toItemDto(booking.getItem()));
+        dto.setBooker(UserMapper.toUserDto(booking.getBooker()));
+        dto.setStatus(booking.getStatus());
+        return dto;
+    }
+
+    public static ResponseBookingDto toResponseBookingDto(BookingView view) {
+        ResponseBookingDto dto = new ResponseBookingDto();
+        dto.setId(view.getId());
+        dto.setStart(view.getStart());
+        dto.setEnd(view.getEnd());
+        dto.setItem(ItemMapper.toItemDto(new ItemView(view.getItemId(), view.getItemName(), view.getItemDescription(),
+                view.getItemAvailable(), view.getItemRequestId())));
+        dto.setBooker(new UserDto(view.getBookerId(), view.getBookerName(), view.getBookerEmail()));
+        dto.setStatus(view.getStatus());
+        return dto;
+    }
+
     public static BookingDto toBookingDto(Booking booking) {
         return new BookingDto(booking.getId(), booking.getStart(), booking.getEnd(), booking.getBooker().getId());
     }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(name = "bookings_archive", schema = "public")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedBooking {
+    @Id
+    long id;
+    @Column(name = "start_date", nullable = false)
+    LocalDateTime start;
+    @Column(name = "end_date", nullable = false)
+    LocalDateTime end;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    Item item;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id")
+    User booker;
+    @Column(name = "owner_id", nullable = false)
+    long ownerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    BookStatus status;
+}
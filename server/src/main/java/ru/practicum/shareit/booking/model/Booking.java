@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     long id;
     @Column(name = "start_date", nullable = false)
     LocalDateTime start;
@@ -31,7 +32,12 @@ public class Booking {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     User booker;
+    @Column(name = "owner_id", nullable = false)
+    long ownerId;
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     BookStatus status;
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
 }
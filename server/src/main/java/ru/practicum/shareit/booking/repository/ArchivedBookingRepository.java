@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookStatus;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long>, BookingArchiveRepository {
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<ArchivedBooking> findById(Long id);
+
+    @Query("select case when count(b) > 0 then true else false end from ArchivedBooking b " +
+            "where b.booker.id = ?1 and b.item.id = ?2 and b.status = ?3")
+    boolean existsByBookerIdAndItemIdAndStatus(long bookerId, long itemId, BookStatus status);
+}
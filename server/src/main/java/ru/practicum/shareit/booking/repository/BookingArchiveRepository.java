@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+public interface BookingArchiveRepository {
+    int archiveFinishedBefore(LocalDateTime cutoff, int limit);
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BookingArchiveRepositoryImpl implements BookingArchiveRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int archiveFinishedBefore(LocalDateTime cutoff, int limit) {
+        List<Long> ids = entityManager.createQuery("select b.id from Booking b where b.end < ?1 and not exists " +
+                        "(select s.itemId from ItemBookingSummary s where s.lastBooking.id = b.id) and not exists " +
+                        "(select s.itemId from ItemBookingSummary s where s.nextBooking.id = b.id) " +
+                        "order by b.id", Long.class)
+                .setParameter(1, cutoff)
+                .setMaxResults(limit)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableSettings.JPA_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .getResultList();
+        if (ids.isEmpty()) return 0;
+        entityManager.createNativeQuery("insert into bookings_archive (id, start_date, end_date, item_id, booker_id, owner_id, status) " +
+                        "select id, start_date, end_date, item_id, booker_id, owner_id, status from bookings where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createNativeQuery("delete from bookings where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids.size();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingQueryRepository {
+    Slice<BookingView> findSlice(Specification<Booking> specification, Pageable pageable);
+
+    List<BookingView> findArchived(Specification<ArchivedBooking> specification, Sort sort, long offset, int limit);
+}
@@ -1,46 +1,47 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.BookStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerId(long userId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerIdAndEndIsBefore(long userId, LocalDateTime now, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByIdIn(Collection<Long> ids);
 
-    List<Booking> findAllByBookerIdAndStartIsAfter(long userId, LocalDateTime now, Pageable pageable);
+    List<Booking> findAllByItemIdAndStatusAndEndIsAfter(long itemId, BookStatus status, LocalDateTime now);
 
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfter(long userId, LocalDateTime now, LocalDateTime now1, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusIs(long userId, BookStatus status, Pageable pageable);
-
-    @Query("select b from Booking b join Item i on b.item.id = i.id where i.owner.id = ?1")
-    List<Booking> findAllByOwnerId(long userId, Pageable pageable);
-
-    @Query("select b from Booking b join Item i on b.item.id = i.id where i.owner.id = ?1 and b.end < ?2")
-    List<Booking> findPastByOwnerId(long userId, LocalDateTime now, Pageable pageable);
-
-    @Query("select b from Booking b join Item i on b.item.id = i.id where i.owner.id = ?1 and b.start > ?2")
-    List<Booking> findFutureByOwnerId(long userId, LocalDateTime now, Pageable pageable);
-
-    @Query("select b from Booking b join Item i on b.item.id = i.id where i.owner.id = ?1 and b.start < ?2 and b.end > ?2")
-    List<Booking> findCurrentByOwnerId(long userId, LocalDateTime now, Pageable pageable);
+    @Query("select b from Booking b where b.booker.id = ?1 and b.item.id = ?2 and b.status = ?3 and b.start < ?4")
+    List<Booking> findAllByBookerIdAndItemIdAndStatusIsAndStartIsBefore(long userId, long itemId, BookStatus status, LocalDateTime now);
 
-    @Query("select b from Booking b join Item i on b.item.id = i.id where i.owner.id = ?1 and b.status = ?2")
-    List<Booking> findWaitingByOwnerId(long userId, BookStatus status, Pageable pageable);
+    @Query("select new ru.practicum.shareit.item.dto.TimeSlotDto(b.start, b.end) from Booking b " +
+            "where b.item.id = ?1 and b.status <> ?2 and b.end > ?3 and b.start < ?4 order by b.start")
+    List<TimeSlotDto> findBusySlots(long itemId, BookStatus status, LocalDateTime from, LocalDateTime to);
 
-    @Query("select b from Booking b join Item i on b.item.id = i.id where i.owner.id = ?1 and b.status = ?2")
-    List<Booking> findRejectedByOwnerId(long userId, BookStatus status, Pageable pageable);
+    @Query("select b from Booking b where b.item.id in ?1 and b.status <> ?2 " +
+            "and (b.start = (select max(l.start) from Booking l where l.item.id = b.item.id and l.status <> ?2 and l.start < ?3) " +
+            "or b.start = (select min(n.start) from Booking n where n.item.id = b.item.id and n.status <> ?2 and n.start > ?3))")
+    List<Booking> findLastAndNextByItemIdIn(Collection<Long> itemIds, BookStatus status, LocalDateTime now);
 
-    List<Booking> findAllByBookerIdAndItemIdAndStatusIsAndStartIsBefore(long userId, long itemId, BookStatus status, LocalDateTime now);
+    @Query(value = "select id from bookings where status = 'WAITING' and start_date < ?1 " +
+            "order by id limit ?2 for update skip locked", nativeQuery = true)
+    List<Long> lockWaitingStartedBefore(LocalDateTime now, int limit);
 
-    List<Booking> findAllByItemIdAndStatusNot(long itemId, BookStatus status);
+    @Modifying
+    @Query("update Booking b set b.status = ?1, b.version = b.version + 1 where b.id in ?2")
+    int updateStatus(BookStatus status, Collection<Long> ids);
 }
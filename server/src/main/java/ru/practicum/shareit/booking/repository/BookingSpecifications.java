@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.BookRole;
+import ru.practicum.shareit.booking.model.BookState;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.exceptions.PaginationException;
+import ru.practicum.shareit.exceptions.booking.BookingStateException;
+import ru.practicum.shareit.pagination.Cursor;
+
+import java.time.LocalDateTime;
+
+@UtilityClass
+public class BookingSpecifications {
+    public static <T> Specification<T> relatedTo(BookRole role, long userId) {
+        return role == BookRole.OWNER ? ownedBy(userId) : bookedBy(userId);
+    }
+
+    public static <T> Specification<T> bookedBy(long userId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), userId);
+    }
+
+    public static <T> Specification<T> ownedBy(long userId) {
+        return (root, query, cb) -> cb.equal(root.get("ownerId"), userId);
+    }
+
+    public static <T> Specification<T> inState(BookState state, LocalDateTime now) {
+        return (root, query, cb) -> {
+            switch (state) {
+                case PAST:
+                    return cb.lessThan(root.<LocalDateTime>get("end"), now);
+                case FUTURE:
+                    return cb.greaterThan(root.<LocalDateTime>get("start"), now);
+                case CURRENT:
+                    return cb.and(cb.lessThan(root.<LocalDateTime>get("start"), now), cb.greaterThan(root.<LocalDateTime>get("end"), now));
+                case WAITING:
+                    return cb.equal(root.get("status"), BookStatus.WAITING);
+                case REJECTED:
+                    return cb.equal(root.get("status"), BookStatus.REJECTED);
+                case ALL:
+                    return cb.conjunction();
+                default:
+                    throw new BookingStateException(String.format("Unknown state: %s", state));
+            }
+        };
+    }
+
+    public static <T> Specification<T> startingBefore(Cursor cursor) {
+        LocalDateTime start = cursor.getPosition();
+        if (start == null) {
+            throw new PaginationException("Cursor does not belong to a booking list");
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<LocalDateTime>get("start"), start),
+                cb.and(cb.equal(root.get("start"), start), cb.lessThan(root.<Long>get("id"), cursor.getId())));
+    }
+}
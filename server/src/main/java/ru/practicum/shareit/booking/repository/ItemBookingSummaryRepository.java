@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Query("select s from ItemBookingSummary s left join fetch s.lastBooking left join fetch s.nextBooking " +
+            "where s.itemId in ?1")
+    List<ItemBookingSummary> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select s.itemId from ItemBookingSummary s join s.nextBooking n where n.start <= ?1 order by s.itemId")
+    List<Long> findItemIdsWithStartedNextBooking(LocalDateTime now, Pageable pageable);
+
+    @Query(value = "select id from items where id = ?1 for update", nativeQuery = true)
+    Long lockItem(long itemId);
+}
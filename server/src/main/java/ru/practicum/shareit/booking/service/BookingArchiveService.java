@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+
+import java.time.LocalDateTime;
+
+@Service
+@Slf4j
+public class BookingArchiveService {
+    private final ArchivedBookingRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonDays;
+    private final int batchSize;
+
+    public BookingArchiveService(ArchivedBookingRepository repository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${shareit.bookings.archive.horizon-days}") int horizonDays,
+                                 @Value("${shareit.bookings.archive.batch-size}") int batchSize) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.archive.interval-ms}")
+    public void archive() {
+        LocalDateTime cutoff = horizon();
+        int archived = 0;
+        Integer chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> repository.archiveFinishedBefore(cutoff, batchSize));
+            archived += chunk;
+        } while (chunk == batchSize);
+        if (archived > 0) log.info("Archived {} bookings finished before {}", archived, cutoff);
+    }
+
+    public LocalDateTime horizon() {
+        return LocalDateTime.now().minusDays(horizonDays);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class BookingExpiryService {
+    private final BookingRepository repository;
+    private final ItemBookingSummaryService summaryService;
+    private final ItemViewCache itemViewCache;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final int batchSize;
+    private final Counter expiredCounter;
+    private final DistributionSummary expiredPerRun;
+
+    public BookingExpiryService(BookingRepository repository,
+                                ItemBookingSummaryService summaryService,
+                                ItemViewCache itemViewCache,
+                                TransactionTemplate transactionTemplate,
+                                OutboxPublisher outboxPublisher,
+                                MeterRegistry registry,
+                                @Value("${shareit.bookings.expiry.batch-size}") int batchSize) {
+        this.repository = repository;
+        this.summaryService = summaryService;
+        this.itemViewCache = itemViewCache;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxPublisher = outboxPublisher;
+        this.batchSize = batchSize;
+        this.expiredCounter = Counter.builder("shareit.bookings.expired")
+                .description("Waiting bookings rejected because their start has passed")
+                .register(registry);
+        this.expiredPerRun = DistributionSummary.builder("shareit.bookings.expiry.run")
+                .description("Waiting bookings rejected per expiry run")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.expiry.interval-ms}")
+    public void expire() {
+        int expired = 0;
+        Integer chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> expireChunk());
+            expired += chunk;
+        } while (chunk == batchSize);
+        expiredCounter.increment(expired);
+        expiredPerRun.record(expired);
+        if (expired > 0) log.info("Rejected {} waiting bookings whose start has passed", expired);
+    }
+
+    private int expireChunk() {
+        List<Long> bookingIds = repository.lockWaitingStartedBefore(LocalDateTime.now(), batchSize);
+        if (bookingIds.isEmpty()) return 0;
+        repository.updateStatus(BookStatus.REJECTED, bookingIds);
+        List<Booking> bookings = repository.findAllByIdIn(bookingIds);
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        summaryService.refreshAll(itemIds);
+        itemIds.forEach(itemViewCache::evict);
+        bookings.forEach(booking -> outboxPublisher.publish(OutboxEventType.BOOKING_STATUS_CHANGED, booking.getId(),
+                booking.getBooker().getId(), booking.getOwnerId(), BookingMapper.toResponseBookingDto(booking)));
+        return bookingIds.size();
+    }
+}
@@ -0,0 +1,207 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.booking.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+@Component
+public class BookingIntervalIndex {
+    private static final long NO_BOOKING = -1;
+
+    private final BookingRepository repository;
+    private final long idleMillis;
+    private final ConcurrentMap<Long, ItemIntervals> intervals = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository repository,
+                                @Value("${shareit.bookings.intervals.idle-ms}") long idleMillis) {
+        this.repository = repository;
+        this.idleMillis = idleMillis;
+    }
+
+    public boolean overlaps(long itemId, LocalDateTime start, LocalDateTime end) {
+        return withIntervals(itemId, itemIntervals ->
+                itemIntervals.overlaps(toEpochSecond(start), toEpochSecond(end), NO_BOOKING));
+    }
+
+    public boolean overlaps(Booking booking) {
+        return withIntervals(booking.getItem().getId(), itemIntervals ->
+                itemIntervals.overlaps(toEpochSecond(booking.getStart()), toEpochSecond(booking.getEnd()), booking.getId()));
+    }
+
+    public void reserve(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long start = toEpochSecond(booking.getStart());
+        long end = toEpochSecond(booking.getEnd());
+        boolean pending = TransactionSynchronizationManager.isSynchronizationActive();
+        ItemIntervals reserved = withIntervals(itemId, itemIntervals -> {
+            if (itemIntervals.overlaps(start, end, booking.getId())) {
+                throw new BookingOverlapException(String.format("Booking by id %d overlaps an approved booking of item by id %d",
+                        booking.getId(), itemId));
+            }
+            if (itemIntervals.indexOf(booking.getId()) < 0) itemIntervals.add(start, end, booking.getId());
+            if (pending) itemIntervals.pending++;
+            return itemIntervals;
+        });
+        if (pending) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (reserved) {
+                        reserved.pending--;
+                        if (status != STATUS_COMMITTED) reserved.remove(booking.getId());
+                    }
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.intervals.prune-interval-ms}")
+    public void prune() {
+        long now = toEpochSecond(LocalDateTime.now());
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+        for (Map.Entry<Long, ItemIntervals> entry : intervals.entrySet()) {
+            ItemIntervals itemIntervals = entry.getValue();
+            synchronized (itemIntervals) {
+                itemIntervals.removeEndedBefore(now);
+                if (itemIntervals.pending == 0 && (itemIntervals.size == 0 || itemIntervals.lastAccess < idleBefore)) {
+                    itemIntervals.evicted = true;
+                    intervals.remove(entry.getKey(), itemIntervals);
+                }
+            }
+        }
+    }
+
+    private <T> T withIntervals(long itemId, Function<ItemIntervals, T> action) {
+        while (true) {
+            ItemIntervals itemIntervals = intervals.computeIfAbsent(itemId, id -> new ItemIntervals(
+                    repository.findAllByItemIdAndStatusAndEndIsAfter(id, BookStatus.APPROVED, LocalDateTime.now())));
+            synchronized (itemIntervals) {
+                if (itemIntervals.evicted) continue;
+                itemIntervals.lastAccess = System.currentTimeMillis();
+                return action.apply(itemIntervals);
+            }
+        }
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class ItemIntervals {
+        long[] starts;
+        long[] ends;
+        long[] bookingIds;
+        long[] maxEnds;
+        int size;
+        int pending;
+        long lastAccess;
+        boolean evicted;
+
+        ItemIntervals(List<Booking> bookings) {
+            bookings.sort(Comparator.comparing(Booking::getStart));
+            size = bookings.size();
+            starts = new long[Math.max(size, 4)];
+            ends = new long[starts.length];
+            bookingIds = new long[starts.length];
+            maxEnds = new long[starts.length];
+            for (int i = 0; i < size; i++) {
+                starts[i] = toEpochSecond(bookings.get(i).getStart());
+                ends[i] = toEpochSecond(bookings.get(i).getEnd());
+                bookingIds[i] = bookings.get(i).getId();
+            }
+            updateMaxEnds(0);
+        }
+
+        boolean overlaps(long start, long end, long excludedBookingId) {
+            for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start && bookingIds[i] != excludedBookingId) return true;
+            }
+            return false;
+        }
+
+        void add(long start, long end, long bookingId) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                bookingIds = Arrays.copyOf(bookingIds, size * 2);
+                maxEnds = Arrays.copyOf(maxEnds, size * 2);
+            }
+            int position = lowerBound(start);
+            System.arraycopy(starts, position, starts, position + 1, size - position);
+            System.arraycopy(ends, position, ends, position + 1, size - position);
+            System.arraycopy(bookingIds, position, bookingIds, position + 1, size - position);
+            starts[position] = start;
+            ends[position] = end;
+            bookingIds[position] = bookingId;
+            size++;
+            updateMaxEnds(position);
+        }
+
+        void remove(long bookingId) {
+            int position = indexOf(bookingId);
+            if (position < 0) return;
+            System.arraycopy(starts, position + 1, starts, position, size - position - 1);
+            System.arraycopy(ends, position + 1, ends, position, size - position - 1);
+            System.arraycopy(bookingIds, position + 1, bookingIds, position, size - position - 1);
+            size--;
+            updateMaxEnds(position);
+        }
+
+        int indexOf(long bookingId) {
+            for (int position = 0; position < size; position++) {
+                if (bookingIds[position] == bookingId) return position;
+            }
+            return -1;
+        }
+
+        void removeEndedBefore(long time) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ends[i] <= time) continue;
+                starts[kept] = starts[i];
+                ends[kept] = ends[i];
+                bookingIds[kept] = bookingIds[i];
+                kept++;
+            }
+            if (kept == size) return;
+            size = kept;
+            updateMaxEnds(0);
+        }
+
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void updateMaxEnds(int from) {
+            for (int i = from; i < size; i++) {
+                maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.BookState;
+import ru.practicum.shareit.pagination.Cursor;
 
 import java.util.List;
 
@@ -11,9 +14,15 @@ public interface BookingService {
 
     ResponseBookingDto accept(long bookingId, long userId, boolean approved);
 
+    List<BookingDecisionResultDto> acceptAll(long userId, List<BookingDecisionDto> decisions);
+
     ResponseBookingDto get(long userId, long bookingId);
 
     List<ResponseBookingDto> getAll(long userId, BookState state, int from, int size);
 
     List<ResponseBookingDto> getAllByUser(long userId, BookState state, int from, int size);
+
+    List<ResponseBookingDto> getAll(long userId, BookState state, Cursor cursor, int size);
+
+    List<ResponseBookingDto> getAllByUser(long userId, BookState state, Cursor cursor, int size);
 }
\ No newline at end of file
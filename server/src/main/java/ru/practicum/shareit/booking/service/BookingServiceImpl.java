@@ -1,45 +1,87 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.RequestBookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookRole;
 import ru.practicum.shareit.booking.model.BookState;
 import ru.practicum.shareit.booking.model.BookStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
 import ru.practicum.shareit.exceptions.booking.*;
 import ru.practicum.shareit.exceptions.item.ItemAvailableException;
-import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.exceptions.item.ItemNotFoundException;
+import ru.practicum.shareit.exceptions.user.UserNotFoundException;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
-import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int STATUS_UPDATE_ATTEMPTS = 3;
+    private static final Sort BOOKING_SORT = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final Comparator<BookingView> BOOKING_ORDER = Comparator.comparing(BookingView::getStart)
+            .thenComparingLong(BookingView::getId)
+            .reversed();
+    private static final String NO_OVERLAP_CONSTRAINT = "bookings_no_overlap";
+
     private final BookingRepository repository;
+    private final ArchivedBookingRepository archivedRepository;
     private final UserService userService;
-    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemViewCache itemViewCache;
+    private final ItemBookingSummaryService summaryService;
+    private final BookingArchiveService archiveService;
+    private final BookingIntervalIndex intervalIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
     @Transactional
     public ResponseBookingDto add(RequestBookingDto requestBookingDto, long userId) {
-        Item item = ItemMapper.toItem(itemService.get(requestBookingDto.getItemId(), userId));
-        User booker = UserMapper.toUser(userService.getById(userId));
+        Item item = itemRepository.findById(requestBookingDto.getItemId())
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Item by id %d not found", requestBookingDto.getItemId())));
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(String.format("User by id %d not found", userId)));
 
-        if (userId == item.getId()) {
+        if (userId == item.getOwner().getId()) {
             throw new BookingsUserException(String.format("User by id %d is an owner of item by id %d", userId, item.getId()));
         }
         if (!requestBookingDto.getStart().isBefore(requestBookingDto.getEnd())) {
@@ -48,95 +90,222 @@ public class BookingServiceImpl implements BookingService {
         if (!item.getAvailable()) {
             throw new ItemAvailableException(String.format("Item by id %d is not available", item.getId()));
         }
+        if (intervalIndex.overlaps(item.getId(), requestBookingDto.getStart(), requestBookingDto.getEnd())) {
+            throw new BookingOverlapException(String.format("Item by id %d is already booked for this time", item.getId()));
+        }
 
         Booking booking = new Booking();
         booking.setStart(requestBookingDto.getStart());
         booking.setEnd(requestBookingDto.getEnd());
         booking.setItem(item);
         booking.setBooker(booker);
+        booking.setOwnerId(item.getOwner().getId());
         booking.setStatus(BookStatus.WAITING);
+        Booking savedBooking = repository.save(booking);
+        summaryService.refresh(item.getId());
+        itemViewCache.evict(item.getId());
 
-        return BookingMapper.toResponseBookingDto(repository.save(booking));
+        ResponseBookingDto dto = BookingMapper.toResponseBookingDto(savedBooking);
+        outboxPublisher.publish(OutboxEventType.BOOKING_CREATED, savedBooking.getId(), userId, savedBooking.getOwnerId(), dto);
+        return dto;
     }
 
     @Override
-    @Transactional
     public ResponseBookingDto accept(long bookingId, long userId, boolean approved) {
+        return withRetry(() -> decide(bookingId, userId, approved));
+    }
+
+    @Override
+    public List<BookingDecisionResultDto> acceptAll(long userId, List<BookingDecisionDto> decisions) {
+        return withRetry(() -> decideAll(userId, decisions));
+    }
+
+    private ResponseBookingDto decide(long bookingId, long userId, boolean approved) {
         Booking booking = repository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException(String.format("Booking by id %d not found", bookingId)));
-        if (userId != booking.getItem().getOwner().getId()) {
+        if (userId != booking.getOwnerId()) {
             throw new BookingsUserException(String.format("User by id %d is not related to this booking", userId));
         }
         if (booking.getStatus() != BookStatus.WAITING) {
             throw new BookingStatusException(String.format("Booking by id %d status already changed", bookingId));
         }
-        if (approved) {
-            booking.setStatus(BookStatus.APPROVED);
-        } else {
-            booking.setStatus(BookStatus.REJECTED);
+        booking.setStatus(approved ? BookStatus.APPROVED : BookStatus.REJECTED);
+        Booking savedBooking = saveStatus(booking);
+        if (approved) intervalIndex.reserve(savedBooking);
+        summaryService.refresh(booking.getItem().getId());
+        itemViewCache.evict(booking.getItem().getId());
+        ResponseBookingDto dto = BookingMapper.toResponseBookingDto(savedBooking);
+        publishStatusChange(savedBooking, dto);
+        return dto;
+    }
+
+    private List<BookingDecisionResultDto> decideAll(long userId, List<BookingDecisionDto> decisions) {
+        Set<Long> bookingIds = decisions.stream().map(BookingDecisionDto::getBookingId).collect(Collectors.toSet());
+        Map<Long, Booking> bookings = repository.findAllByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> decided = new HashSet<>();
+        Set<Long> itemIds = new HashSet<>();
+        List<Booking> approvedBookings = new ArrayList<>();
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        for (BookingDecisionDto decision : decisions) {
+            long bookingId = decision.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            try {
+                if (booking == null) {
+                    throw new BookingNotFoundException(String.format("Booking by id %d not found", bookingId));
+                }
+                if (userId != booking.getOwnerId()) {
+                    throw new BookingsUserException(String.format("User by id %d is not related to this booking", userId));
+                }
+                if (!decided.add(bookingId)) {
+                    throw new BookingStatusException(String.format("Booking by id %d is decided more than once", bookingId));
+                }
+                if (booking.getStatus() != BookStatus.WAITING) {
+                    throw new BookingStatusException(String.format("Booking by id %d status already changed", bookingId));
+                }
+                if (decision.isApproved()) {
+                    if (intervalIndex.overlaps(booking) || overlapsAny(booking, approvedBookings)) {
+                        throw new BookingOverlapException(String.format("Booking by id %d overlaps an approved booking of item by id %d",
+                                bookingId, booking.getItem().getId()));
+                    }
+                    booking.setStatus(BookStatus.APPROVED);
+                    approvedBookings.add(booking);
+                } else {
+                    booking.setStatus(BookStatus.REJECTED);
+                }
+                itemIds.add(booking.getItem().getId());
+                ResponseBookingDto dto = BookingMapper.toResponseBookingDto(booking);
+                publishStatusChange(booking, dto);
+                results.add(new BookingDecisionResultDto(bookingId, dto, null));
+            } catch (BookingNotFoundException | BookingsUserException | BookingStatusException | BookingOverlapException e) {
+                results.add(new BookingDecisionResultDto(bookingId, null, e.getMessage()));
+            }
+        }
+        try {
+            repository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlap(e)) {
+                throw new BookingOverlapException("Approved bookings overlap an approved booking of the same item");
+            }
+            throw e;
         }
-        return BookingMapper.toResponseBookingDto(repository.save(booking));
+        approvedBookings.forEach(intervalIndex::reserve);
+        summaryService.refreshAll(itemIds);
+        itemIds.forEach(itemViewCache::evict);
+        return results;
     }
 
     @Override
     @Transactional
     public ResponseBookingDto get(long userId, long bookingId) {
-        Booking booking = repository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(String.format("Booking by id %d not found", bookingId)));
-        if (booking.getBooker().getId() == userId || booking.getItem().getOwner().getId() == userId) {
-            return BookingMapper.toResponseBookingDto(booking);
-        } else {
-            throw new BookingsUserException(String.format("User by id %d is not related to this booking", userId));
+        Optional<Booking> booking = repository.findById(bookingId);
+        if (booking.isPresent()) {
+            checkRelated(userId, booking.get().getBooker().getId(), booking.get().getOwnerId());
+            return BookingMapper.toResponseBookingDto(booking.get());
         }
+        ArchivedBooking archivedBooking = archivedRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(String.format("Booking by id %d not found", bookingId)));
+        checkRelated(userId, archivedBooking.getBooker().getId(), archivedBooking.getOwnerId());
+        return BookingMapper.toResponseBookingDto(archivedBooking);
     }
 
     @Override
     @Transactional
     public List<ResponseBookingDto> getAll(long userId, BookState state, int from, int size) {
-        userService.getById(userId);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
-        switch (state) {
-            case ALL:
-                return toResponseBookingDto(repository.findAllByBookerId(userId, pageable));
-            case PAST:
-                return toResponseBookingDto(repository.findAllByBookerIdAndEndIsBefore(userId, LocalDateTime.now(), pageable));
-            case FUTURE:
-                return toResponseBookingDto(repository.findAllByBookerIdAndStartIsAfter(userId, LocalDateTime.now(),pageable));
-            case CURRENT:
-                return toResponseBookingDto(repository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(userId, LocalDateTime.now(), LocalDateTime.now(), pageable));
-            case WAITING:
-                return toResponseBookingDto(repository.findAllByBookerIdAndStatusIs(userId, BookStatus.WAITING, pageable));
-            case REJECTED:
-                return toResponseBookingDto(repository.findAllByBookerIdAndStatusIs(userId, BookStatus.REJECTED, pageable));
-        }
-        throw new BookingStateException(String.format("Unknown state: %s", state));
+        return find(BookRole.BOOKER, userId, state, null, PageRequest.of(from / size, size, BOOKING_SORT));
     }
 
     @Override
     @Transactional
     public List<ResponseBookingDto> getAllByUser(long userId, BookState state, int from, int size) {
-        userService.getById(userId);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
-        switch (state) {
-            case ALL:
-                return toResponseBookingDto(repository.findAllByOwnerId(userId, pageable));
-            case PAST:
-                return toResponseBookingDto(repository.findPastByOwnerId(userId, LocalDateTime.now(), pageable));
-            case FUTURE:
-                return toResponseBookingDto(repository.findFutureByOwnerId(userId, LocalDateTime.now(), pageable));
-            case CURRENT:
-                return toResponseBookingDto(repository.findCurrentByOwnerId(userId, LocalDateTime.now(), pageable));
-            case WAITING:
-                return toResponseBookingDto(repository.findWaitingByOwnerId(userId, BookStatus.WAITING, pageable));
-            case REJECTED:
-                return toResponseBookingDto(repository.findRejectedByOwnerId(userId, BookStatus.REJECTED, pageable));
-        }
-        throw new BookingStateException(String.format("Unknown state: %s", state));
+        return find(BookRole.OWNER, userId, state, null, PageRequest.of(from / size, size, BOOKING_SORT));
+    }
+
+    @Override
+    @Transactional
+    public List<ResponseBookingDto> getAll(long userId, BookState state, Cursor cursor, int size) {
+        return find(BookRole.BOOKER, userId, state, cursor, PageRequest.of(0, size, BOOKING_SORT));
+    }
+
+    @Override
+    @Transactional
+    public List<ResponseBookingDto> getAllByUser(long userId, BookState state, Cursor cursor, int size) {
+        return find(BookRole.OWNER, userId, state, cursor, PageRequest.of(0, size, BOOKING_SORT));
     }
 
-    private List<ResponseBookingDto> toResponseBookingDto(List<Booking> bookings) {
+    private List<ResponseBookingDto> find(BookRole role, long userId, BookState state, Cursor cursor, Pageable pageable) {
+        userService.getById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        if (state != BookState.ALL && state != BookState.PAST) {
+            return repository.findSlice(specification(role, userId, state, now, cursor), pageable).stream()
+                    .map(BookingMapper::toResponseBookingDto)
+                    .collect(Collectors.toList());
+        }
+        int window = (int) pageable.getOffset() + pageable.getPageSize();
+        List<BookingView> bookings = new ArrayList<>(repository.findSlice(specification(role, userId, state, now, cursor),
+                PageRequest.of(0, window, pageable.getSort())).getContent());
+        boolean reachesArchive = bookings.isEmpty()
+                || bookings.get(bookings.size() - 1).getStart().isBefore(archiveService.horizon());
+        if (reachesArchive) {
+            bookings.addAll(repository.findArchived(specification(role, userId, state, now, cursor), pageable.getSort(), 0, window));
+        } else if (bookings.size() < window) {
+            bookings.addAll(repository.findArchived(specification(role, userId, state, now, cursor), pageable.getSort(), 0,
+                    window - bookings.size()));
+        }
         return bookings.stream()
+                .sorted(BOOKING_ORDER)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
                 .map(BookingMapper::toResponseBookingDto)
                 .collect(Collectors.toList());
     }
+
+    private static <T> Specification<T> specification(BookRole role, long userId, BookState state, LocalDateTime now, Cursor cursor) {
+        Specification<T> specification = BookingSpecifications.<T>relatedTo(role, userId)
+                .and(BookingSpecifications.inState(state, now));
+        return cursor == null ? specification : specification.and(BookingSpecifications.startingBefore(cursor));
+    }
+
+    private void publishStatusChange(Booking booking, ResponseBookingDto dto) {
+        outboxPublisher.publish(OutboxEventType.BOOKING_STATUS_CHANGED, booking.getId(), booking.getBooker().getId(),
+                booking.getOwnerId(), dto);
+    }
+
+    private void checkRelated(long userId, long bookerId, long ownerId) {
+        if (bookerId != userId && ownerId != userId) {
+            throw new BookingsUserException(String.format("User by id %d is not related to this booking", userId));
+        }
+    }
+
+    private <T> T withRetry(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == STATUS_UPDATE_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private Booking saveStatus(Booking booking) {
+        try {
+            return repository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlap(e)) {
+                throw new BookingOverlapException(String.format("Booking by id %d overlaps an approved booking of item by id %d",
+                        booking.getId(), booking.getItem().getId()));
+            }
+            throw e;
+        }
+    }
+
+    private static boolean overlapsAny(Booking booking, List<Booking> others) {
+        return others.stream().anyMatch(other -> other.getItem().getId() == booking.getItem().getId()
+                && other.getStart().isBefore(booking.getEnd()) && booking.getStart().isBefore(other.getEnd()));
+    }
+
+    private boolean isOverlap(DataIntegrityViolationException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.contains(NO_OVERLAP_CONSTRAINT);
+    }
 }
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ItemBookingSummaryService {
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository repository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void refresh(long itemId) {
+        refresh(List.of(itemId));
+    }
+
+    @Transactional
+    public void refreshAll(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) refresh(new ArrayList<>(itemIds));
+    }
+
+    @Transactional
+    public Map<Long, ItemBookingSummary> findAllByItemIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = repository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<Long> staleItemIds = summaries.values().stream()
+                .filter(summary -> summary.getNextBooking() != null && !summary.getNextBooking().getStart().isAfter(now))
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toList());
+        if (!staleItemIds.isEmpty()) summaries.putAll(compute(staleItemIds, now));
+        return summaries;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.summary.sweep-interval-ms}")
+    public void sweep() {
+        int refreshed = 0;
+        List<Long> itemIds = repository.findItemIdsWithStartedNextBooking(LocalDateTime.now(), PageRequest.of(0, SWEEP_BATCH_SIZE));
+        while (!itemIds.isEmpty()) {
+            List<Long> batch = itemIds;
+            transactionTemplate.executeWithoutResult(status -> refresh(batch));
+            refreshed += batch.size();
+            if (batch.size() < SWEEP_BATCH_SIZE) break;
+            itemIds = repository.findItemIdsWithStartedNextBooking(LocalDateTime.now(), PageRequest.of(0, SWEEP_BATCH_SIZE));
+        }
+        if (refreshed > 0) log.info("Rolled next booking into last booking for {} items", refreshed);
+    }
+
+    private void refresh(List<Long> itemIds) {
+        itemIds.stream().sorted().forEach(repository::lockItem);
+        Map<Long, ItemBookingSummary> summaries = compute(itemIds, LocalDateTime.now());
+        repository.saveAll(summaries.values());
+    }
+
+    private Map<Long, ItemBookingSummary> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        itemIds.forEach(itemId -> summaries.put(itemId, new ItemBookingSummary(itemId, null, null)));
+        for (Booking booking : bookingRepository.findLastAndNextByItemIdIn(itemIds, BookStatus.REJECTED, now)) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (booking.getStart().isBefore(now)) {
+                summary.setLastBooking(booking);
+            } else {
+                summary.setNextBooking(booking);
+            }
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,261 @@
+package ru.practicum.shareit.booking.stream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class BookingStreamHub {
+    private static final List<OutboxEventType> BOOKING_EVENTS =
+            List.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_STATUS_CHANGED);
+    private static final OutboxEvent HEARTBEAT = new OutboxEvent();
+    private static final OutboxEvent RESYNC = new OutboxEvent();
+
+    private final OutboxEventRepository repository;
+    private final UserService userService;
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int replayLimit;
+    private final Duration lookback;
+    private final ExecutorService sender;
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    private LocalDateTime watermarkCreatedAt = LocalDateTime.now();
+    private long watermarkId;
+
+    public BookingStreamHub(OutboxEventRepository repository,
+                            UserService userService,
+                            MeterRegistry registry,
+                            @Value("${shareit.bookings.stream.timeout-ms}") long timeoutMs,
+                            @Value("${shareit.bookings.stream.buffer-size}") int bufferSize,
+                            @Value("${shareit.bookings.stream.replay-limit}") int replayLimit,
+                            @Value("${shareit.bookings.stream.lookback-ms}") long lookbackMs,
+                            @Value("${shareit.bookings.stream.sender-threads}") int senderThreads) {
+        this.repository = repository;
+        this.userService = userService;
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.replayLimit = replayLimit;
+        this.lookback = Duration.ofMillis(lookbackMs);
+        this.sender = Executors.newFixedThreadPool(senderThreads);
+        Gauge.builder("shareit.bookings.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open booking event streams on this node")
+                .register(registry);
+    }
+
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        userService.getById(userId);
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeoutMs));
+        subscriber.emitter.onCompletion(() -> unregister(subscriber));
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(e -> subscriber.close());
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> result = userSubscribers == null ? ConcurrentHashMap.newKeySet() : userSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        if (lastEventId != null) {
+            Optional<OutboxEvent> lastEvent = repository.findById(lastEventId);
+            if (lastEvent.isPresent()) {
+                subscriber.replay = new Replay(lastEventId, lastEvent.get().getCreatedAt().minus(lookback));
+                subscriber.scheduleDrain();
+            } else {
+                subscriber.offer(RESYNC);
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.stream.poll-interval-ms}")
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            seen.clear();
+            watermarkCreatedAt = LocalDateTime.now();
+            watermarkId = 0;
+            return;
+        }
+        LocalDateTime since = watermarkCreatedAt.minus(lookback);
+        seen.values().removeIf(createdAt -> createdAt.isBefore(since));
+        LocalDateTime createdAt = since;
+        long id = 0;
+        List<OutboxEvent> events;
+        do {
+            events = repository.findEventsAfter(BOOKING_EVENTS, createdAt, id, PageRequest.of(0, bufferSize));
+            for (OutboxEvent event : events) {
+                createdAt = event.getCreatedAt();
+                id = event.getId();
+                if (seen.putIfAbsent(event.getId(), event.getCreatedAt()) != null) continue;
+                deliver(event.getBookerId(), event);
+                if (event.getOwnerId() != event.getBookerId()) deliver(event.getOwnerId(), event);
+            }
+        } while (events.size() == bufferSize);
+        if (createdAt.isAfter(watermarkCreatedAt) || createdAt.isEqual(watermarkCreatedAt) && id > watermarkId) {
+            watermarkCreatedAt = createdAt;
+            watermarkId = id;
+        }
+    }
+
+    @Scheduled(fixedRateString = "${shareit.bookings.stream.heartbeat-interval-ms}")
+    public void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+        sender.shutdown();
+    }
+
+    private void deliver(long userId, OutboxEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) userSubscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            if (userSubscribers.remove(subscriber)) subscriberCount.decrementAndGet();
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(OutboxEvent event) {
+        if (event == HEARTBEAT) return SseEmitter.event().comment("heartbeat");
+        if (event == RESYNC) return SseEmitter.event().name("RESYNC").data("Missed booking events can not be replayed");
+        return SseEmitter.event().id(String.valueOf(event.getId())).name(event.getType().name()).data(event.getPayload());
+    }
+
+    private static final class Replay {
+        final long lastEventId;
+        LocalDateTime createdAt;
+        long id;
+        int sent;
+
+        Replay(long lastEventId, LocalDateTime createdAt) {
+            this.lastEventId = lastEventId;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final class Subscriber {
+        final long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<OutboxEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final Set<Long> replayed = new HashSet<>();
+        volatile boolean closed;
+        volatile Replay replay;
+        boolean missedDuringReplay;
+
+        Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(OutboxEvent event) {
+            if (closed) return;
+            if (!queue.offer(event)) {
+                synchronized (this) {
+                    if (replay != null) {
+                        missedDuringReplay = true;
+                        return;
+                    }
+                }
+                log.info("Closing booking stream of user {}: buffer of {} events is full", userId, bufferSize);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            queue.clear();
+            unregister(this);
+            emitter.complete();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) sender.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    if (replay != null) {
+                        replayChunk();
+                        continue;
+                    }
+                    OutboxEvent event = queue.poll();
+                    if (event == null) {
+                        replayed.clear();
+                        break;
+                    }
+                    if (!replayed.contains(event.getId())) emitter.send(toSseEvent(event));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } catch (RuntimeException e) {
+                log.warn("Closing booking stream of user {}: replay failed", userId, e);
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && (replay != null || !queue.isEmpty())) scheduleDrain();
+        }
+
+        private void replayChunk() throws IOException {
+            synchronized (this) {
+                missedDuringReplay = false;
+            }
+            List<OutboxEvent> events = repository.findEventsForUserAfter(userId, BOOKING_EVENTS,
+                    replay.createdAt, replay.id, PageRequest.of(0, bufferSize));
+            for (OutboxEvent event : events) {
+                if (event.getId() != replay.lastEventId) emitter.send(toSseEvent(event));
+                replayed.add(event.getId());
+                replay.createdAt = event.getCreatedAt();
+                replay.id = event.getId();
+                replay.sent++;
+            }
+            if (replay.sent >= replayLimit && events.size() == bufferSize) {
+                emitter.send(toSseEvent(RESYNC));
+                replay = null;
+                return;
+            }
+            synchronized (this) {
+                if (events.size() < bufferSize && !missedDuringReplay) replay = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions.booking;
+
+public class BookingOverlapException extends RuntimeException {
+    public BookingOverlapException(String message) {
+        super(message);
+    }
+}
@@ -2,27 +2,41 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 @Slf4j
 public class ItemController {
+    private static final long AVAILABILITY_MAX_AGE_SECONDS = 30;
+
     private final ItemService service;
 
     @GetMapping
-    public List<ItemDto> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
-                                @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
+    public ResponseEntity<List<ItemDto>> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+                                                @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+                                                @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("Get all items by user id {}", userId);
-        return service.getAll(userId, from, size);
+        List<ItemDto> items = cursor == null
+                ? service.getAll(userId, from, size)
+                : service.getAll(userId, Cursor.decode(cursor), size);
+        return Cursor.withNextCursor(items, size, item -> new Cursor(item.getId()));
     }
 
     @GetMapping("/{itemId}")
@@ -40,6 +54,16 @@ public class ItemController {
         return service.search(text, from, size);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<TimeSlotDto>> getAvailability(@PathVariable long itemId,
+                                                             @RequestParam(value = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                             @RequestParam(value = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", itemId, from, to);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(AVAILABILITY_MAX_AGE_SECONDS, TimeUnit.SECONDS))
+                .body(service.getAvailability(itemId, from, to));
+    }
+
     @PostMapping
     public ItemDto add(@RequestHeader("X-Sharer-User-Id") long userId,
                        @RequestBody ItemDto itemDto) {
@@ -47,6 +71,13 @@ public class ItemController {
         return service.add(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public List<ItemBatchResultDto> addAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @RequestBody List<ItemDto> itemDtos) {
+        log.info("User {} add {} items", userId, itemDtos.size());
+        return service.addAll(userId, itemDtos);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") long userId,
                           @RequestBody ItemDto itemDto,
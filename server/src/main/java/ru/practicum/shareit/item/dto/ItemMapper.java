@@ -27,6 +27,17 @@ public class ItemMapper {
         return itemDto;
     }
 
+    public static ItemDto toItemDto(ItemView view) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(view.getId());
+        itemDto.setName(view.getName());
+        itemDto.setDescription(view.getDescription());
+        itemDto.setAvailable(view.getAvailable());
+        if (view.getRequestId() != null) itemDto.setRequestId(view.getRequestId());
+        itemDto.setComments(new ArrayList<>());
+        return itemDto;
+    }
+
     public static Item toItem(ItemDto itemDto) {
         Item item = new Item();
         item.setId(itemDto.getId());
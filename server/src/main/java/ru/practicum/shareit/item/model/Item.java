@@ -20,7 +20,8 @@ import java.util.List;
 @NoArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     long id;
     @Column(name = "name", nullable = false)
     String name;
@@ -34,6 +35,9 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     ItemRequest request;
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
     @Transient
     Booking lastBooking;
     @Transient
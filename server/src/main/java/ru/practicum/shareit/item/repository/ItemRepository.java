@@ -4,17 +4,35 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(long userId, Pageable pageable);
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item i left join i.request r where i.owner.id = ?1")
+    List<ItemView> findViewsByOwnerId(long userId, Pageable pageable);
 
-    @Query("select i from Item i where lower(i.name) like lower(concat('%', ?1, '%')) " +
-            "or lower(i.description) like lower(concat('%', ?1, '%')) and is_available = true")
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item i left join i.request r where i.owner.id = ?1 and i.id > ?2 order by i.id")
+    List<ItemView> findViewsByOwnerIdAfter(long userId, long id, Pageable pageable);
+
+    @Query("select i from Item i where i.available = true and (lower(i.name) like lower(concat('%', ?1, '%')) " +
+            "or lower(i.description) like lower(concat('%', ?1, '%')))")
     List<Item> search(String text, Pageable pageable);
 
-    List<Item> findAllByRequestId(long requestId);
+    @Query(value = "select * from items i where i.is_available = true " +
+            "and (lower(i.name) like lower(concat('%', ?1, '%')) or lower(i.description) like lower(concat('%', ?1, '%'))) " +
+            "order by greatest(word_similarity(lower(?1), lower(i.name)), word_similarity(lower(?1), lower(i.description))) desc, i.id",
+            nativeQuery = true)
+    List<Item> searchRanked(String text, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i where i.request.id in ?1 order by i.id")
+    List<ItemView> findViewsByRequestIdIn(Collection<Long> requestIds);
+
+    List<Item> findAllByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
 }
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.item.search", havingValue = "memory")
+@Slf4j
+public class IndexedItemSearcher implements ItemSearcher {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemRepository repository;
+    private final ItemSearchIndex index = new ItemSearchIndex();
+    private final Timer rebuildTimer;
+    private volatile boolean ready;
+
+    public IndexedItemSearcher(ItemRepository repository, MeterRegistry registry) {
+        this.repository = repository;
+        this.rebuildTimer = Timer.builder("shareit.items.search.index.rebuild")
+                .description("Time to rebuild the in-memory item search index")
+                .register(registry);
+        Gauge.builder("shareit.items.search.index.memory", index, ItemSearchIndex::memoryBytes)
+                .description("Estimated heap used by the in-memory item search index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("shareit.items.search.index.documents", index, ItemSearchIndex::size)
+                .description("Items held by the in-memory item search index")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ready = false;
+        rebuildTimer.record(() -> {
+            index.clear();
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = repository.findAllByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                batch.forEach(index::put);
+                if (!batch.isEmpty()) lastId = batch.get(batch.size() - 1).getId();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        });
+        ready = true;
+        log.info("Item search index rebuilt with {} items", index.size());
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        if (!ready) return repository.search(text, pageable);
+        List<Long> ids = index.search(text, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<Long, Item> items = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Item item) {
+        afterCommit(() -> index.put(item));
+    }
+
+    @Override
+    public void remove(long itemId) {
+        afterCommit(() -> index.remove(itemId));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
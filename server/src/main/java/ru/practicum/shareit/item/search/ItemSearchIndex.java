@@ -0,0 +1,201 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+
+public class ItemSearchIndex {
+    private static final int ENTRY_BYTES = 64;
+    private static final int DOCUMENT_BYTES = 80;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long postingSlots;
+    private long textChars;
+
+    public void put(Item item) {
+        Document document = new Document(lower(item.getName()), lower(item.getDescription()),
+                Boolean.TRUE.equals(item.getAvailable()));
+        lock.writeLock().lock();
+        try {
+            removeDocument(item.getId());
+            documents.put(item.getId(), document);
+            textChars += document.length();
+            for (long trigram : trigrams(document.name, document.description)) {
+                PostingList list = postings.computeIfAbsent(trigram, key -> new PostingList());
+                int capacity = list.capacity();
+                list.add(item.getId());
+                postingSlots += list.capacity() - capacity;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            postingSlots = 0;
+            textChars = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        String query = lower(text);
+        List<Long> nameMatches = new ArrayList<>();
+        List<Long> descriptionMatches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] candidates = query.length() < 3 ? allIds() : candidates(trigrams(query));
+            for (long id : candidates) {
+                Document document = documents.get(id);
+                if (document == null || !document.available) continue;
+                if (document.name.contains(query)) {
+                    nameMatches.add(id);
+                } else if (document.description.contains(query)) {
+                    descriptionMatches.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        nameMatches.addAll(descriptionMatches);
+        if (from >= nameMatches.size()) return new ArrayList<>();
+        return new ArrayList<>(nameMatches.subList(from, Math.min(from + size, nameMatches.size())));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) postings.size() * ENTRY_BYTES + postingSlots * Long.BYTES
+                    + (long) documents.size() * (ENTRY_BYTES + DOCUMENT_BYTES) + textChars * Character.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(long itemId) {
+        Document previous = documents.remove(itemId);
+        if (previous == null) return;
+        textChars -= previous.length();
+        for (long trigram : trigrams(previous.name, previous.description)) {
+            PostingList list = postings.get(trigram);
+            if (list == null) continue;
+            list.remove(itemId);
+            if (list.size == 0) {
+                postings.remove(trigram);
+                postingSlots -= list.capacity();
+            }
+        }
+    }
+
+    private long[] allIds() {
+        return documents.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private long[] candidates(long[] trigrams) {
+        List<PostingList> lists = new ArrayList<>();
+        for (long trigram : trigrams) {
+            PostingList list = postings.get(trigram);
+            if (list == null) return new long[0];
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        long[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int length = result.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < length; j++) {
+                if (lists.get(i).contains(result[j])) result[kept++] = result[j];
+            }
+            length = kept;
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    private static long[] trigrams(String... texts) {
+        LongStream.Builder builder = LongStream.builder();
+        for (String text : texts) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                builder.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+        return builder.build().distinct().toArray();
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    private static final class Document {
+        final String name;
+        final String description;
+        final boolean available;
+
+        Document(String name, String description, boolean available) {
+            this.name = name;
+            this.description = description;
+            this.available = available;
+        }
+
+        int length() {
+            return name.length() + description.length();
+        }
+    }
+
+    private static final class PostingList {
+        long[] ids = new long[4];
+        int size;
+
+        int capacity() {
+            return ids.length;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) return;
+            position = -position - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) return;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.item.search", havingValue = "like")
+@RequiredArgsConstructor
+public class LikeItemSearcher implements ItemSearcher {
+    private final ItemRepository repository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return repository.search(text, pageable);
+    }
+}
@@ -1,19 +1,29 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.pagination.Cursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     List<ItemDto> getAll(long userId, int from, int size);
 
+    List<ItemDto> getAll(long userId, Cursor cursor, int size);
+
     ItemDto get(long itemId, long userId);
 
     List<ItemDto> search(String text, int from, int size);
 
+    List<TimeSlotDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
     ItemDto add(long userId, ItemDto itemDto);
 
+    List<ItemBatchResultDto> addAll(long userId, List<ItemDto> itemDtos);
+
     ItemDto update(long userId, ItemDto itemDto, long itemId);
 
     void delete(long userId, long itemId);
@@ -3,10 +3,16 @@ package ru.practicum.shareit.item.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.exceptions.booking.BookingTimeException;
 import ru.practicum.shareit.exceptions.comment.CommentException;
 import ru.practicum.shareit.exceptions.item.ItemNotFoundException;
 import ru.practicum.shareit.exceptions.item.ItemsOwnerException;
@@ -16,47 +22,77 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearcher;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxPublisher;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int ITEM_BATCH_SIZE = 500;
+
     private final ItemRepository repository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final ItemBookingSummaryService summaryService;
     private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
+    private final ItemSearcher searcher;
+    private final ItemViewCache itemViewCache;
+    private final EntityManager entityManager;
+    private final OutboxPublisher outboxPublisher;
 
     @Override
     @Transactional
     public List<ItemDto> getAll(long userId, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        return repository.findAllByOwnerId(userId, pageable).stream()
-                .map(this::addComments)
-                .map(this::addLastAndNextBooking)
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by("id"));
+        return withDetails(repository.findViewsByOwnerId(userId, pageable).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDto> getAll(long userId, Cursor cursor, int size) {
+        return withDetails(repository.findViewsByOwnerIdAfter(userId, cursor.getId(), PageRequest.of(0, size)).stream()
                 .map(ItemMapper::toItemDto)
-                .sorted(Comparator.comparing(ItemDto::getId))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     @Transactional
     public ItemDto get(long itemId, long userId) {
+        Optional<ItemDto> cached = itemViewCache.get(itemId, userId);
+        if (cached.isPresent()) return cached.get();
+        long generation = itemViewCache.generation();
         Item item = repository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException(String.format("Item by id %d not found", itemId)));
-        addComments(item);
-        if (userId == item.getOwner().getId()) addLastAndNextBooking(item);
-        return ItemMapper.toItemDto(item);
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        addComments(List.of(itemDto));
+        boolean ownerView = userId == item.getOwner().getId();
+        if (ownerView) addLastAndNextBookings(List.of(itemDto));
+        LocalDateTime validUntil = itemDto.getNextBooking() != null ? itemDto.getNextBooking().getStart() : null;
+        itemViewCache.put(generation, item.getOwner().getId(), itemDto, ownerView, validUntil);
+        return itemDto;
     }
 
     @Override
@@ -64,11 +100,26 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> search(String text, int from, int size) {
         if (text.isBlank()) return new ArrayList<>();
         Pageable pageable = PageRequest.of(from / size, size);
-        return repository.search(text, pageable).stream()
-                .map(this::addComments)
-                .map(this::addLastAndNextBooking)
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return toItemDtos(searcher.search(text, pageable));
+    }
+
+    @Override
+    @Transactional
+    public List<TimeSlotDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BookingTimeException("End of availability window must be after start");
+        }
+        if (!repository.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Item by id %d not found", itemId));
+        }
+        List<TimeSlotDto> freeSlots = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (TimeSlotDto busy : bookingRepository.findBusySlots(itemId, BookStatus.REJECTED, from, to)) {
+            if (busy.getStart().isAfter(freeFrom)) freeSlots.add(new TimeSlotDto(freeFrom, busy.getStart()));
+            if (busy.getEnd().isAfter(freeFrom)) freeFrom = busy.getEnd();
+        }
+        if (freeFrom.isBefore(to)) freeSlots.add(new TimeSlotDto(freeFrom, to));
+        return freeSlots;
     }
 
     @Override
@@ -80,7 +131,41 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new ItemRequestNotFoundException(String.format("Request by id %d not found", itemDto.getRequestId()))));
         }
-        return ItemMapper.toItemDto(repository.save(item));
+        Item savedItem = repository.save(item);
+        searcher.index(savedItem);
+        return ItemMapper.toItemDto(savedItem);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemBatchResultDto> addAll(long userId, List<ItemDto> itemDtos) {
+        User owner = UserMapper.toUser(userService.getById(userId));
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(requestId -> requestId != 0)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        ItemBatchResultDto[] results = new ItemBatchResultDto[itemDtos.size()];
+        List<Item> chunk = new ArrayList<>();
+        List<Integer> chunkIndexes = new ArrayList<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemDto itemDto = itemDtos.get(i);
+            if (itemDto.getRequestId() != 0 && !requests.containsKey(itemDto.getRequestId())) {
+                results[i] = new ItemBatchResultDto(i, null, String.format("Request by id %d not found", itemDto.getRequestId()));
+                continue;
+            }
+            Item item = ItemMapper.toItem(itemDto);
+            item.setId(0);
+            item.setOwner(owner);
+            item.setRequest(requests.get(itemDto.getRequestId()));
+            chunk.add(item);
+            chunkIndexes.add(i);
+            if (chunk.size() == ITEM_BATCH_SIZE) saveChunk(chunk, chunkIndexes, results);
+        }
+        if (!chunk.isEmpty()) saveChunk(chunk, chunkIndexes, results);
+        return Arrays.asList(results);
     }
 
     @Override
@@ -95,13 +180,18 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getName() != null) updatedItem.setName(itemDto.getName());
         if (itemDto.getAvailable() != null) updatedItem.setAvailable(itemDto.getAvailable());
         if (itemDto.getDescription() != null) updatedItem.setDescription(itemDto.getDescription());
-        return ItemMapper.toItemDto(repository.save(updatedItem));
+        Item savedItem = repository.save(updatedItem);
+        searcher.index(savedItem);
+        itemViewCache.evict(itemId);
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
     @Transactional
     public void delete(long userId, long itemId) {
         repository.deleteById(itemId);
+        searcher.remove(itemId);
+        itemViewCache.evict(itemId);
     }
 
     @Override
@@ -109,37 +199,65 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto addComment(CommentDto dto, long userId, long itemId) {
         List<Booking> bookings = bookingRepository
                 .findAllByBookerIdAndItemIdAndStatusIsAndStartIsBefore(userId, itemId, BookStatus.APPROVED, LocalDateTime.now());
-        if (bookings.isEmpty()) {
+        if (bookings.isEmpty() && !archivedBookingRepository.existsByBookerIdAndItemIdAndStatus(userId, itemId, BookStatus.APPROVED)) {
             throw new CommentException(String.format("User by id %d do not use item by id %d", userId, itemId));
         }
+        Item item = repository.findById(itemId)
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Item by id %d not found", itemId)));
         Comment comment = new Comment();
         comment.setText(dto.getText());
-        comment.setItem(repository.findById(itemId)
-                .orElseThrow(() -> new ItemNotFoundException(String.format("Item by id %d not found", itemId))));
+        comment.setItem(item);
         comment.setAuthor(UserMapper.toUser(userService.getById(userId)));
         comment.setCreated(LocalDateTime.now());
-        return CommentMapper.toResponseCommentDto(commentRepository.save(comment));
+        itemViewCache.evict(itemId);
+        Comment savedComment = commentRepository.save(comment);
+        CommentDto commentDto = CommentMapper.toResponseCommentDto(savedComment);
+        outboxPublisher.publish(OutboxEventType.COMMENT_ADDED, savedComment.getId(), userId, item.getOwner().getId(), commentDto);
+        return commentDto;
+    }
+
+    private void saveChunk(List<Item> chunk, List<Integer> chunkIndexes, ItemBatchResultDto[] results) {
+        repository.saveAll(chunk);
+        repository.flush();
+        entityManager.clear();
+        for (int i = 0; i < chunk.size(); i++) {
+            Item item = chunk.get(i);
+            searcher.index(item);
+            results[chunkIndexes.get(i)] = new ItemBatchResultDto(chunkIndexes.get(i), ItemMapper.toItemDto(item), null);
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private List<ItemDto> toItemDtos(List<Item> items) {
+        return withDetails(items.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList()));
+    }
+
+    private List<ItemDto> withDetails(List<ItemDto> itemDtos) {
+        addComments(itemDtos);
+        addLastAndNextBookings(itemDtos);
+        return itemDtos;
     }
 
-    private Item addLastAndNextBooking(Item item) {
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = bookingRepository.findAllByItemIdAndStatusNot(item.getId(), BookStatus.REJECTED);
-        Booking lastBooking = bookings.stream()
-                .filter(booking -> booking.getStart().isBefore(now))
-                .max(Comparator.comparing(Booking::getStart))
-                .orElse(null);
-        Booking nextBooking = bookings.stream()
-                .filter(booking -> booking.getStart().isAfter(now))
-                .min(Comparator.comparing(Booking::getStart))
-                .orElse(null);
-        if (lastBooking != null) item.setLastBooking(lastBooking);
-        if (nextBooking != null) item.setNextBooking(nextBooking);
-        return item;
+    private void addLastAndNextBookings(List<ItemDto> itemDtos) {
+        List<Long> itemIds = itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = summaryService.findAllByItemIds(itemIds);
+        for (ItemDto itemDto : itemDtos) {
+            ItemBookingSummary summary = summaries.get(itemDto.getId());
+            if (summary == null) continue;
+            if (summary.getLastBooking() != null) itemDto.setLastBooking(BookingMapper.toBookingDto(summary.getLastBooking()));
+            if (summary.getNextBooking() != null) itemDto.setNextBooking(BookingMapper.toBookingDto(summary.getNextBooking()));
+        }
     }
 
-    private Item addComments(Item item) {
-        List<Comment> comments = commentRepository.findAllByItemId(item.getId());
-        item.setComments(Objects.requireNonNullElseGet(comments, ArrayList::new));
-        return item;
+    private void addComments(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) return;
+        List<Long> itemIds = itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toResponseCommentDto, Collectors.toList())));
+        itemDtos.forEach(itemDto -> itemDto.setComments(comments.getOrDefault(itemDto.getId(), new ArrayList<>())));
     }
 }
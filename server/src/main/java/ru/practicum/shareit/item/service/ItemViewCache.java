@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ItemViewCache {
+    private final Cache<Long, ItemViews> cache;
+    private final long maxSize;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong staleBefore = new AtomicLong();
+    private final ConcurrentMap<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    public ItemViewCache(@Value("${shareit.cache.items.max-size}") long maxSize,
+                         @Value("${shareit.cache.items.ttl-seconds}") long ttlSeconds,
+                         MeterRegistry registry) {
+        this.maxSize = maxSize;
+        long ttl = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, ItemViews>() {
+                    @Override
+                    public long expireAfterCreate(Long itemId, ItemViews views, long currentTime) {
+                        return views.nanosToLive(ttl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long itemId, ItemViews views, long currentTime, long currentDuration) {
+                        return views.nanosToLive(ttl);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long itemId, ItemViews views, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "items");
+    }
+
+    public Optional<ItemDto> get(long itemId, long userId) {
+        ItemViews views = cache.getIfPresent(itemId);
+        if (views == null) return Optional.empty();
+        return Optional.ofNullable(views.ownerId == userId ? views.ownerView : views.publicView);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(long loadedGeneration, long ownerId, ItemDto view, boolean ownerView, LocalDateTime validUntil) {
+        ItemViews views = ownerView
+                ? new ItemViews(ownerId, null, view, validUntil)
+                : new ItemViews(ownerId, view, null, null);
+        cache.asMap().compute(view.getId(), (itemId, current) -> {
+            if (loadedGeneration < staleBefore.get() || loadedGeneration < invalidatedAt.getOrDefault(itemId, 0L)) {
+                return current;
+            }
+            return current == null || current.ownerId != ownerId ? views : current.merge(views);
+        });
+    }
+
+    public void evict(long itemId) {
+        invalidate(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(itemId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(long itemId) {
+        invalidatedAt.put(itemId, generation.incrementAndGet());
+        if (invalidatedAt.size() > maxSize) {
+            invalidatedAt.clear();
+            staleBefore.accumulateAndGet(generation.get(), Math::max);
+        }
+        cache.invalidate(itemId);
+    }
+
+    private static final class ItemViews {
+        final long ownerId;
+        final ItemDto publicView;
+        final ItemDto ownerView;
+        final LocalDateTime validUntil;
+
+        ItemViews(long ownerId, ItemDto publicView, ItemDto ownerView, LocalDateTime validUntil) {
+            this.ownerId = ownerId;
+            this.publicView = publicView;
+            this.ownerView = ownerView;
+            this.validUntil = validUntil;
+        }
+
+        ItemViews merge(ItemViews other) {
+            return new ItemViews(ownerId,
+                    other.publicView != null ? other.publicView : publicView,
+                    other.ownerView != null ? other.ownerView : ownerView,
+                    other.ownerView != null ? other.validUntil : validUntil);
+        }
+
+        long nanosToLive(long ttl) {
+            LocalDateTime now = LocalDateTime.now();
+            if (validUntil == null || validUntil.isAfter(now.plusNanos(ttl))) return ttl;
+            return Math.max(0, Duration.between(now, validUntil).toNanos());
+        }
+    }
+}
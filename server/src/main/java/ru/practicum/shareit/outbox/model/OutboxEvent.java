@@ -0,0 +1,38 @@
+package ru.practicum.shareit.outbox.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(name = "outbox_events", schema = "public")
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    long id;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    OutboxEventType type;
+    @Column(name = "aggregate_id", nullable = false)
+    long aggregateId;
+    @Column(name = "booker_id", nullable = false)
+    long bookerId;
+    @Column(name = "owner_id", nullable = false)
+    long ownerId;
+    @Column(name = "payload", nullable = false)
+    String payload;
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+    @Column(name = "dispatched_at")
+    LocalDateTime dispatchedAt;
+}
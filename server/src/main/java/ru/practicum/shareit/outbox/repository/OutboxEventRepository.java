@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query(value = "select * from outbox_events where dispatched_at is null " +
+            "order by id limit ?1 for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockPending(int limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.dispatchedAt = ?1 where e.id in ?2")
+    int markDispatched(LocalDateTime dispatchedAt, Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.dispatchedAt < ?1")
+    int deleteDispatchedBefore(LocalDateTime before);
+
+    long countByDispatchedAtIsNull();
+
+    Optional<OutboxEvent> findFirstByDispatchedAtIsNullOrderByIdAsc();
+
+    @Query("select e from OutboxEvent e where e.type in ?1 " +
+            "and (e.createdAt > ?2 or (e.createdAt = ?2 and e.id > ?3)) order by e.createdAt, e.id")
+    List<OutboxEvent> findEventsAfter(Collection<OutboxEventType> types, LocalDateTime createdAt, long id, Pageable pageable);
+
+    @Query("select e from OutboxEvent e where (e.bookerId = ?1 or e.ownerId = ?1) and e.type in ?2 " +
+            "and (e.createdAt > ?3 or (e.createdAt = ?3 and e.id > ?4)) order by e.createdAt, e.id")
+    List<OutboxEvent> findEventsForUserAfter(long userId, Collection<OutboxEventType> types, LocalDateTime createdAt, long id,
+                                             Pageable pageable);
+}
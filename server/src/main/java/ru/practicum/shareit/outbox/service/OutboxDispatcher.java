@@ -0,0 +1,92 @@
+package ru.practicum.shareit.outbox.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class OutboxDispatcher {
+    private final OutboxEventRepository repository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+    private final Counter dispatchedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository repository,
+                            ObjectProvider<OutboxSink> sinks,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry registry,
+                            @Value("${shareit.outbox.batch-size}") int batchSize,
+                            @Value("${shareit.outbox.max-batches-per-run}") int maxBatchesPerRun,
+                            @Value("${shareit.outbox.retention-hours}") long retentionHours) {
+        this.repository = repository;
+        this.sinks = sinks.orderedStream().collect(Collectors.toList());
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = Duration.ofHours(retentionHours);
+        this.dispatchedCounter = Counter.builder("shareit.outbox.dispatched")
+                .description("Outbox events delivered to all sinks")
+                .register(registry);
+        this.failedCounter = Counter.builder("shareit.outbox.failures")
+                .description("Outbox dispatch runs stopped by a sink failure")
+                .register(registry);
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events waiting for dispatch")
+                .register(registry);
+        Gauge.builder("shareit.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest outbox event waiting for dispatch")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.dispatch-interval-ms}")
+    public void dispatch() {
+        try {
+            int batches = 0;
+            Integer dispatched;
+            do {
+                dispatched = transactionTemplate.execute(status -> dispatchBatch());
+                batches++;
+            } while (dispatched == batchSize && batches < maxBatchesPerRun);
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Outbox dispatch stopped, undelivered events will be retried", e);
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.deleteDispatchedBefore(LocalDateTime.now().minus(retention)));
+        pending.set(repository.countByDispatchedAtIsNull());
+        lagSeconds.set(repository.findFirstByDispatchedAtIsNullOrderByIdAsc()
+                .map(event -> Duration.between(event.getCreatedAt(), LocalDateTime.now()).getSeconds())
+                .orElse(0L));
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> events = repository.lockPending(batchSize);
+        if (events.isEmpty()) return 0;
+        sinks.forEach(sink -> sink.send(events));
+        repository.markDispatched(LocalDateTime.now(), events.stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+        dispatchedCounter.increment(events.size());
+        return events.size();
+    }
+}
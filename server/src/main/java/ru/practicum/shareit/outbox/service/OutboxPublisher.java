@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxPublisher {
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void publish(OutboxEventType type, long aggregateId, long bookerId, long ownerId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setAggregateId(aggregateId);
+        event.setBookerId(bookerId);
+        event.setOwnerId(ownerId);
+        event.setPayload(toJson(payload));
+        event.setCreatedAt(LocalDateTime.now());
+        repository.save(event);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox payload is not serializable", e);
+        }
+    }
+}
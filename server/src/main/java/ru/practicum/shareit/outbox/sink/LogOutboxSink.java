@@ -0,0 +1,19 @@
+package ru.practicum.shareit.outbox.sink;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink.log.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LogOutboxSink implements OutboxSink {
+    @Override
+    public void send(List<OutboxEvent> events) {
+        events.forEach(event -> log.info("Outbox event {} {} for booker {} and owner {}: {}",
+                event.getId(), event.getType(), event.getBookerId(), event.getOwnerId(), event.getPayload()));
+    }
+}
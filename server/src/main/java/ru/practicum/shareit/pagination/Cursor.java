@@ -0,0 +1,55 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exceptions.PaginationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor
+public class Cursor {
+    public static final String HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    final LocalDateTime position;
+    final long id;
+
+    public Cursor(long id) {
+        this(null, id);
+    }
+
+    public String encode() {
+        String raw = (position == null ? "" : position.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            String position = raw.substring(0, separator);
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new Cursor(position.isEmpty() ? null : LocalDateTime.parse(position), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new PaginationException(String.format("Invalid cursor %s", token));
+        }
+    }
+
+    public static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, int size, Function<T, Cursor> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() == size) {
+            response.header(HEADER, cursorOf.apply(page.get(page.size() - 1)).encode());
+        }
+        return response.body(page);
+    }
+}
@@ -2,7 +2,9 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -31,11 +33,15 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
-                                       @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-                                       @RequestParam(value = "size", defaultValue = "20", required = false) int size) {
+    public ResponseEntity<List<ItemRequestDto>> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+                                                       @RequestParam(value = "size", defaultValue = "20", required = false) int size,
+                                                       @RequestParam(value = "cursor", required = false) String cursor) {
         log.info("Get list all requests");
-        return service.getAll(userId, from, size);
+        List<ItemRequestDto> requests = cursor == null
+                ? service.getAll(userId, from, size)
+                : service.getAll(userId, Cursor.decode(cursor), size);
+        return Cursor.withNextCursor(requests, size, request -> new Cursor(request.getCreated(), request.getId()));
     }
 
     @GetMapping("/{requestId}")
@@ -2,14 +2,21 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r from ItemRequest r where r.requestor.id = ?1")
     List<ItemRequest> findAllByRequestorId(long userId, Pageable pageable);
 
     List<ItemRequest> findAllByRequestorIdIsNot(long userId, Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.requestor.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequestorIdIsNotBefore(long userId, LocalDateTime created, long id, Pageable pageable);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -11,6 +12,8 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAll(long userId, int from, int size);
 
+    List<ItemRequestDto> getAll(long userId, Cursor cursor, int size);
+
     ItemRequestDto getById(long userId, long requestId);
 
     void delete(long userId, long requestId);
@@ -5,9 +5,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.PaginationException;
 import ru.practicum.shareit.exceptions.request.ItemRequestNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -15,13 +20,16 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
-import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort REQUEST_SORT = Sort.by(Sort.Direction.DESC, "created", "id");
+
     private final ItemRequestRepository repository;
     private final ItemRepository itemRepository;
     private final UserService userService;
@@ -32,39 +40,55 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(requestDto);
         itemRequest.setRequestor(UserMapper.toUser(userService.getById(userId)));
         ItemRequestDto dto = ItemRequestMapper.toItemRequestDto(repository.save(itemRequest));
-        return addItems(dto);
+        return addItems(List.of(dto)).get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> get(long userId, int from, int size) {
         userService.getById(userId);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "created"));
+        Pageable pageable = PageRequest.of(from / size, size, REQUEST_SORT);
         return repository.findAllByRequestorId(userId, pageable)
                 .stream()
                 .map(ItemRequestMapper::toItemRequestDto)
-                .map(this::addItems)
-                .collect(Collectors.toList());
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::addItems));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getAll(long userId, int from, int size) {
         userService.getById(userId);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "created"));
+        Pageable pageable = PageRequest.of(from / size, size, REQUEST_SORT);
         return repository.findAllByRequestorIdIsNot(userId, pageable)
                 .stream()
                 .map(ItemRequestMapper::toItemRequestDto)
-                .map(this::addItems)
-                .collect(Collectors.toList());
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::addItems));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getAll(long userId, Cursor cursor, int size) {
+        userService.getById(userId);
+        if (cursor.getPosition() == null) {
+            throw new PaginationException("Cursor does not belong to a request list");
+        }
+        return repository.findAllByRequestorIdIsNotBefore(userId, cursor.getPosition(), cursor.getId(), PageRequest.of(0, size))
+                .stream()
+                .map(ItemRequestMapper::toItemRequestDto)
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::addItems));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto getById(long userId, long requestId) {
         userService.getById(userId);
-        return addItems(ItemRequestMapper.toItemRequestDto(repository.findById(requestId)
-                .orElseThrow(() -> new ItemRequestNotFoundException(String.format("Request by id %d not found", requestId)))));
+        ItemRequestDto dto = ItemRequestMapper.toItemRequestDto(repository.findById(requestId)
+                .orElseThrow(() -> new ItemRequestNotFoundException(String.format("Request by id %d not found", requestId))));
+        return addItems(List.of(dto)).get(0);
     }
 
     @Override
+    @Transactional
     public void delete(long userId, long requestId) {
         ItemRequest request = repository.findById(requestId)
                 .orElseThrow(() -> new ItemRequestNotFoundException(String.format("Request by id %d not found", requestId)));
@@ -74,11 +98,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         repository.deleteById(requestId);
     }
 
-    private ItemRequestDto addItems(ItemRequestDto dto) {
-        dto.setItems(itemRepository.findAllByRequestId(dto.getId())
-                .stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList()));
-        return dto;
+    private List<ItemRequestDto> addItems(List<ItemRequestDto> dtos) {
+        if (dtos.isEmpty()) return dtos;
+        List<Long> requestIds = dtos.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findViewsByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemView::getRequestId,
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+        dtos.forEach(dto -> dto.setItems(items.getOrDefault(dto.getId(), new ArrayList<>())));
+        return dtos;
     }
 }
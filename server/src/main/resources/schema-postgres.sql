@@ -0,0 +1,24 @@
+create extension if not exists pg_trgm;
+
+create index if not exists items_name_trgm_idx on items using gin (lower(name) gin_trgm_ops);
+
+create index if not exists items_description_trgm_idx on items using gin (lower(description) gin_trgm_ops);
+
+create index if not exists bookings_waiting_start_idx on bookings (start_date) where status = 'WAITING';
+
+create index if not exists outbox_events_pending_idx on outbox_events (id) where dispatched_at is null;
+
+create extension if not exists btree_gist;
+
+alter table bookings add constraint bookings_no_overlap
+exclude using gist (item_id with =, tsrange(start_date, end_date) with &&) where (status = 'APPROVED');
+
+create or replace function bookings_sync_owner() returns trigger language plpgsql as
+'begin
+update bookings set owner_id = new.owner_id where item_id = new.id;
+update bookings_archive set owner_id = new.owner_id where item_id = new.id;
+return new;
+end';
+
+create trigger items_owner_sync after update of owner_id on items for each row
+when (old.owner_id is distinct from new.owner_id) execute procedure bookings_sync_owner();
@@ -1,40 +1,105 @@
-drop table if exists users, requests, items, bookings, comments;
+drop table if exists users, requests, items, bookings, bookings_archive, comments, item_booking_summary, outbox_events;
+
+drop sequence if exists users_seq;
+drop sequence if exists requests_seq;
+drop sequence if exists items_seq;
+drop sequence if exists bookings_seq;
+drop sequence if exists comments_seq;
+drop sequence if exists outbox_seq;
+
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists requests_seq start with 1 increment by 50;
+create sequence if not exists items_seq start with 1 increment by 50;
+create sequence if not exists bookings_seq start with 1 increment by 50;
+create sequence if not exists comments_seq start with 1 increment by 50;
+create sequence if not exists outbox_seq start with 1 increment by 50;
 
 create table if not exists users (
-id serial not null primary key,
+id bigint not null primary key,
 name varchar(100) not null,
 email varchar(100) not null unique
 );
 
 create table if not exists requests (
-id serial not null primary key,
+id bigint not null primary key,
 description varchar(255),
 requestor_id bigint not null references users(id) on delete cascade,
 created timestamp without time zone not null
 );
 
 create table if not exists items (
-id serial not null primary key,
+id bigint not null primary key,
 name varchar(255) not null,
 description varchar(255),
 is_available boolean,
 owner_id bigint not null references users(id) on delete cascade,
-request_id bigint references requests(id) on delete cascade
+request_id bigint references requests(id) on delete cascade,
+version bigint not null default 0
 );
 
 create table if not exists bookings (
-id serial not null primary key,
+id bigint not null primary key,
+start_date timestamp without time zone not null,
+end_date timestamp without time zone not null,
+item_id bigint not null references items(id) on delete cascade,
+booker_id bigint not null references users(id) on delete cascade,
+owner_id bigint not null references users(id) on delete cascade,
+status varchar(8) not null,
+version bigint not null default 0
+);
+
+create table if not exists bookings_archive (
+id bigint not null primary key,
 start_date timestamp without time zone not null,
 end_date timestamp without time zone not null,
 item_id bigint not null references items(id) on delete cascade,
 booker_id bigint not null references users(id) on delete cascade,
+owner_id bigint not null references users(id) on delete cascade,
 status varchar(8) not null
 );
 
 create table if not exists comments (
-id serial not null primary key,
+id bigint not null primary key,
 text varchar(1000) not null,
 item_id bigint not null references items(id) on delete cascade,
 author_id bigint not null references users(id) on delete cascade,
 created timestamp without time zone not null
-);
\ No newline at end of file
+);
+
+create table if not exists item_booking_summary (
+item_id bigint not null primary key references items(id) on delete cascade,
+last_booking_id bigint references bookings(id) on delete set null,
+next_booking_id bigint references bookings(id) on delete set null
+);
+
+create table if not exists outbox_events (
+id bigint not null primary key,
+event_type varchar(32) not null,
+aggregate_id bigint not null,
+booker_id bigint not null,
+owner_id bigint not null,
+payload text not null,
+created_at timestamp without time zone not null,
+dispatched_at timestamp without time zone
+);
+
+create index if not exists requests_requestor_created_idx on requests (requestor_id, created desc, id desc);
+create index if not exists items_owner_idx on items (owner_id, id);
+create index if not exists items_request_idx on items (request_id);
+create index if not exists bookings_booker_start_idx on bookings (booker_id, start_date desc, id desc);
+create index if not exists bookings_booker_status_start_idx on bookings (booker_id, status, start_date desc);
+create index if not exists bookings_owner_start_idx on bookings (owner_id, start_date desc, id desc);
+create index if not exists bookings_owner_status_start_idx on bookings (owner_id, status, start_date desc);
+create index if not exists bookings_item_start_idx on bookings (item_id, start_date);
+create index if not exists bookings_item_end_start_idx on bookings (item_id, end_date, start_date);
+create index if not exists bookings_end_idx on bookings (end_date);
+create index if not exists bookings_archive_booker_start_idx on bookings_archive (booker_id, start_date desc, id desc);
+create index if not exists bookings_archive_owner_start_idx on bookings_archive (owner_id, start_date desc, id desc);
+create index if not exists bookings_archive_item_booker_idx on bookings_archive (item_id, booker_id);
+create index if not exists comments_item_idx on comments (item_id);
+create index if not exists item_booking_summary_last_idx on item_booking_summary (last_booking_id);
+create index if not exists item_booking_summary_next_idx on item_booking_summary (next_booking_id);
+create index if not exists outbox_events_dispatched_idx on outbox_events (dispatched_at);
+create index if not exists outbox_events_created_idx on outbox_events (created_at, id);
+create index if not exists outbox_events_booker_created_idx on outbox_events (booker_id, created_at, id);
+create index if not exists outbox_events_owner_created_idx on outbox_events (owner_id, created_at, id);
\ No newline at end of file
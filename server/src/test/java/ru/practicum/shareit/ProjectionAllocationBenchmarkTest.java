@@ -0,0 +1,130 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class ProjectionAllocationBenchmarkTest {
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS = 2_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 300;
+    private static final int ITERATIONS = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private User owner;
+    private User booker;
+
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(new User(0, "owner", "alloc-owner@mail.com"));
+        booker = userRepository.save(new User(0, "booker", "alloc-booker@mail.com"));
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item(0, "drill " + i, "cordless drill " + i, true, owner, null, 0, null, null, null));
+        }
+        itemRepository.saveAll(items);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new Booking(0, start.plusHours(i), start.plusHours(i + 1), items.get(i % ITEMS), booker,
+                    owner.getId(), BookStatus.APPROVED, 0));
+        }
+        bookingRepository.saveAll(bookings);
+    }
+
+    @Test
+    void bookingPageAllocations() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "start", "id"));
+        compare("GET /bookings",
+                () -> bookingRepository.findSlice(BookingSpecifications.<Booking>bookedBy(booker.getId()), pageable).stream()
+                        .map(BookingMapper::toResponseBookingDto)
+                        .collect(Collectors.toList()),
+                () -> entityManager.createQuery("select b from Booking b join fetch b.item join fetch b.booker " +
+                                "where b.booker.id = ?1 order by b.start desc, b.id desc", Booking.class)
+                        .setParameter(1, booker.getId())
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultStream()
+                        .map(BookingMapper::toResponseBookingDto)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void itemPageAllocations() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        compare("GET /items",
+                () -> itemRepository.findViewsByOwnerId(owner.getId(), pageable).stream()
+                        .map(ItemMapper::toItemDto)
+                        .collect(Collectors.toList()),
+                () -> entityManager.createQuery("select i from Item i where i.owner.id = ?1", Item.class)
+                        .setParameter(1, owner.getId())
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultStream()
+                        .map(ItemMapper::toItemDto)
+                        .collect(Collectors.toList()));
+    }
+
+    private void compare(String endpoint, Supplier<List<?>> projection, Supplier<List<?>> entities) {
+        measure(projection, WARMUP_ITERATIONS);
+        measure(entities, WARMUP_ITERATIONS);
+        long projectionBytes = measure(projection, ITERATIONS);
+        long entityBytes = measure(entities, ITERATIONS);
+        log.info("{} page of {}: {} bytes/page with DTO projection, {} bytes/page with managed entities ({}%)",
+                endpoint, PAGE_SIZE, projectionBytes, entityBytes, projectionBytes * 100 / entityBytes);
+    }
+
+    private long measure(Supplier<List<?>> page, int iterations) {
+        long threadId = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            List<?> result = transactionTemplate.execute(status -> page.get());
+            assertEquals(PAGE_SIZE, result.size());
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - allocated) / iterations;
+    }
+}
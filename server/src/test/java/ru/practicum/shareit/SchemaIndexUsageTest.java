@@ -0,0 +1,226 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookState;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.SchemaIndexUsageTest$CapturedStatements")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexUsageTest {
+    private static final long FIRST_ID = 1_000_001;
+    private static final int USERS = 100;
+    private static final int REQUESTS = 500;
+    private static final int ITEMS = 400;
+    private static final int BOOKINGS = 5_000;
+    private static final int ARCHIVED_BOOKINGS = 2_000;
+    private static final int COMMENTS = 1_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final String[] STATUSES = {"APPROVED", "WAITING", "REJECTED", "CANCELED"};
+    private static final List<OutboxEventType> STREAM_EVENTS =
+            List.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_STATUS_CHANGED);
+    private static final Sort BOOKING_SORT = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{FIRST_ID + i, "user" + i, "plan" + i + "@mail.com"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(new Object[]{FIRST_ID + i, "request" + i, user(i), NOW.minusMinutes(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{FIRST_ID + i, "item" + i, "description" + i, true, owner(i), i % 3 == 0 ? FIRST_ID + i : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", items);
+
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?)", bookings(BOOKINGS, 0));
+        jdbcTemplate.batchUpdate("insert into bookings_archive (id, start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?)", bookings(ARCHIVED_BOOKINGS, BOOKINGS));
+
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            comments.add(new Object[]{FIRST_ID + i, "comment" + i, FIRST_ID + i % ITEMS, user(i), NOW.minusDays(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)", comments);
+
+        jdbcTemplate.execute("analyze");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryUsesIndex(String query, Runnable call) {
+        CapturedStatements.STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> call.run());
+        List<String> selects = CapturedStatements.STATEMENTS.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .collect(Collectors.toList());
+        assertFalse(selects.isEmpty(), () -> query + " issued no select");
+        for (String sql : selects) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("tableScan"), () -> query + " scans a whole table:\n" + plan);
+        }
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        long booker = user(7);
+        long owner = owner(2);
+        long item = FIRST_ID + 13;
+        List<Long> items = List.of(FIRST_ID + 13, FIRST_ID + 14, FIRST_ID + 15);
+        Pageable page = PageRequest.of(0, 20, BOOKING_SORT);
+        Cursor cursor = new Cursor(NOW.minusMonths(7), FIRST_ID + 2_000);
+        return Stream.of(
+                query("BookingRepository.findSlice booker ALL", () -> bookingRepository.findSlice(
+                        BookingSpecifications.<Booking>bookedBy(booker).and(BookingSpecifications.inState(BookState.ALL, NOW)), page)),
+                query("BookingRepository.findSlice booker WAITING", () -> bookingRepository.findSlice(
+                        BookingSpecifications.<Booking>bookedBy(booker).and(BookingSpecifications.inState(BookState.WAITING, NOW)), page)),
+                query("BookingRepository.findSlice booker PAST after cursor", () -> bookingRepository.findSlice(
+                        BookingSpecifications.<Booking>bookedBy(booker).and(BookingSpecifications.inState(BookState.PAST, NOW))
+                                .and(BookingSpecifications.startingBefore(cursor)), page)),
+                query("BookingRepository.findSlice owner ALL", () -> bookingRepository.findSlice(
+                        BookingSpecifications.<Booking>ownedBy(owner).and(BookingSpecifications.inState(BookState.ALL, NOW)), page)),
+                query("BookingRepository.findSlice owner REJECTED", () -> bookingRepository.findSlice(
+                        BookingSpecifications.<Booking>ownedBy(owner).and(BookingSpecifications.inState(BookState.REJECTED, NOW)), page)),
+                query("BookingRepository.findArchived booker", () -> bookingRepository.findArchived(
+                        BookingSpecifications.<ArchivedBooking>bookedBy(booker).and(BookingSpecifications.inState(BookState.ALL, NOW)),
+                        BOOKING_SORT, 0, 20)),
+                query("BookingRepository.findArchived owner", () -> bookingRepository.findArchived(
+                        BookingSpecifications.<ArchivedBooking>ownedBy(owner).and(BookingSpecifications.inState(BookState.PAST, NOW)),
+                        BOOKING_SORT, 0, 20)),
+                query("BookingRepository.findAllByItemIdAndStatusAndEndIsAfter",
+                        () -> bookingRepository.findAllByItemIdAndStatusAndEndIsAfter(item, BookStatus.APPROVED, NOW)),
+                query("BookingRepository.findAllByBookerIdAndItemIdAndStatusIsAndStartIsBefore",
+                        () -> bookingRepository.findAllByBookerIdAndItemIdAndStatusIsAndStartIsBefore(user(13), item,
+                                BookStatus.APPROVED, NOW)),
+                query("BookingRepository.findBusySlots",
+                        () -> bookingRepository.findBusySlots(item, BookStatus.REJECTED, NOW, NOW.plusMonths(2))),
+                query("BookingRepository.findLastAndNextByItemIdIn",
+                        () -> bookingRepository.findLastAndNextByItemIdIn(items, BookStatus.REJECTED, NOW)),
+                query("ArchivedBookingRepository.existsByBookerIdAndItemIdAndStatus",
+                        () -> archivedBookingRepository.existsByBookerIdAndItemIdAndStatus(user(13), item, BookStatus.APPROVED)),
+                query("ArchivedBookingRepository.archiveFinishedBefore",
+                        () -> archivedBookingRepository.archiveFinishedBefore(NOW.minusYears(30), 1_000)),
+                query("CommentRepository.findAllByItemIdIn", () -> commentRepository.findAllByItemIdIn(items)),
+                query("ItemRepository.findViewsByOwnerId", () -> itemRepository.findViewsByOwnerId(owner, PageRequest.of(0, 20))),
+                query("ItemRepository.findViewsByOwnerIdAfter",
+                        () -> itemRepository.findViewsByOwnerIdAfter(owner, FIRST_ID + 50, PageRequest.of(0, 20))),
+                query("ItemRepository.findViewsByRequestIdIn",
+                        () -> itemRepository.findViewsByRequestIdIn(List.of(FIRST_ID + 3, FIRST_ID + 6, FIRST_ID + 9))),
+                query("OutboxEventRepository.findEventsAfter",
+                        () -> outboxEventRepository.findEventsAfter(STREAM_EVENTS, NOW, 0, PageRequest.of(0, 256))),
+                query("OutboxEventRepository.findEventsForUserAfter", () -> outboxEventRepository.findEventsForUserAfter(booker,
+                        STREAM_EVENTS, NOW, 0, PageRequest.of(0, 256))),
+                query("ItemRequestRepository.findAllByRequestorId", () -> itemRequestRepository.findAllByRequestorId(booker,
+                        PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "created", "id"))))
+        );
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    private static Arguments query(String name, Runnable call) {
+        return Arguments.of(name, call);
+    }
+
+    private List<Object[]> bookings(int count, int firstIndex) {
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = firstIndex; i < firstIndex + count; i++) {
+            int item = i % ITEMS;
+            LocalDateTime start = NOW.minusDays(BOOKINGS / 2 - i % BOOKINGS);
+            bookings.add(new Object[]{FIRST_ID + i, start, start.plusDays(2), FIRST_ID + item, user(i), owner(item),
+                    STATUSES[i % STATUSES.length]});
+        }
+        return bookings;
+    }
+
+    private static long user(int index) {
+        return FIRST_ID + index % USERS;
+    }
+
+    private static long owner(int item) {
+        return FIRST_ID + (item * 7 + 3) % USERS;
+    }
+
+    public static class CapturedStatements implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.BookState;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementCountTest {
+    private static final int MAX_STATEMENTS_PER_PAGE = 6;
+    private static final int[] PAGE_SIZES = {5, 20, 50};
+    private static final int ITEMS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(new User(0, "owner", "stats-owner@mail.com"));
+        booker = userRepository.save(new User(0, "booker", "stats-booker@mail.com"));
+        User requestor = userRepository.save(new User(0, "requestor", "stats-requestor@mail.com"));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ItemRequest> requests = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            requests.add(new ItemRequest(0, "need a drill " + i, requestor, now.minusMinutes(i)));
+        }
+        itemRequestRepository.saveAll(requests);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item(0, "drill " + i, "cordless drill " + i, true, owner, requests.get(i), 0, null, null, null));
+        }
+        itemRepository.saveAll(items);
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = items.get(i);
+            LocalDateTime past = now.minusDays(10 + i);
+            LocalDateTime future = now.plusDays(10 + i);
+            bookings.add(new Booking(0, past, past.plusDays(1), item, booker, owner.getId(), BookStatus.APPROVED, 0));
+            bookings.add(new Booking(0, future, future.plusDays(1), item, booker, owner.getId(), BookStatus.WAITING, 0));
+            comments.add(new Comment(0, "works fine " + i, item, booker, now.minusDays(i)));
+            comments.add(new Comment(0, "loud " + i, item, booker, now.minusDays(i)));
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+        summaryService.refreshAll(items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void pageTakesConstantNumberOfStatements(String endpoint, IntFunction<List<?>> page) {
+        Map<Integer, Long> statements = new TreeMap<>();
+        for (int size : PAGE_SIZES) {
+            statistics.clear();
+            assertEquals(size, page.apply(size).size(), endpoint + " returned a short page");
+            statements.put(size, statistics.getPrepareStatementCount());
+        }
+        assertEquals(1, new HashSet<>(statements.values()).size(),
+                () -> endpoint + " statements grow with page size: " + statements);
+        assertTrue(statements.values().stream().allMatch(count -> count <= MAX_STATEMENTS_PER_PAGE),
+                () -> endpoint + " takes more than " + MAX_STATEMENTS_PER_PAGE + " statements: " + statements);
+    }
+
+    Stream<Arguments> endpoints() {
+        return Stream.of(
+                endpoint("GET /bookings?state=ALL", size -> bookingService.getAll(booker.getId(), BookState.ALL, 0, size)),
+                endpoint("GET /bookings?state=PAST", size -> bookingService.getAll(booker.getId(), BookState.PAST, 0, size)),
+                endpoint("GET /bookings/owner?state=ALL", size -> bookingService.getAllByUser(owner.getId(), BookState.ALL, 0, size)),
+                endpoint("GET /bookings/owner?state=FUTURE",
+                        size -> bookingService.getAllByUser(owner.getId(), BookState.FUTURE, 0, size)),
+                endpoint("GET /items", size -> itemService.getAll(owner.getId(), 0, size)),
+                endpoint("GET /items/search", size -> itemService.search("drill", 0, size)),
+                endpoint("GET /requests/all", size -> itemRequestService.getAll(owner.getId(), 0, size))
+        );
+    }
+
+    private static Arguments endpoint(String name, IntFunction<List<?>> page) {
+        return Arguments.of(name, page);
+    }
+}
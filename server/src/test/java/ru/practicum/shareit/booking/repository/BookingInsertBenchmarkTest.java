@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Tag("benchmark")
+@Slf4j
+class BookingInsertBenchmarkTest {
+    private static final int BOOKINGS = 100_000;
+    private static final int WARMUP_BOOKINGS = 10_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void insertHundredThousandBookings() {
+        User owner = userRepository.save(new User(0, "owner", "bench-owner@mail.com"));
+        User booker = userRepository.save(new User(0, "booker", "bench-booker@mail.com"));
+        Item item = itemRepository.save(new Item(0, "drill", "bench drill", true, owner, null, 0, null, null, null));
+
+        insert(item, booker, WARMUP_BOOKINGS, 1);
+        insert(item, booker, WARMUP_BOOKINGS, null);
+        double unbatched = insert(item, booker, BOOKINGS, 1);
+        double batched = insert(item, booker, BOOKINGS, null);
+
+        log.info("Inserted {} bookings: {} rows/s one statement per row, {} rows/s with JDBC batching ({}x)",
+                BOOKINGS, Math.round(unbatched), Math.round(batched), String.format("%.2f", batched / unbatched));
+        assertEquals(2L * (BOOKINGS + WARMUP_BOOKINGS), bookingRepository.count());
+    }
+
+    private double insert(Item item, User booker, int count, Integer batchSize) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long started = System.nanoTime();
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                List<Booking> bookings = new ArrayList<>(CHUNK_SIZE);
+                for (int i = chunkStart; i < Math.min(chunkStart + CHUNK_SIZE, count); i++) {
+                    bookings.add(new Booking(0, start.plusHours(i), start.plusHours(i + 1), item, booker,
+                            item.getOwner().getId(), BookStatus.WAITING, 0));
+                }
+                bookingRepository.saveAll(bookings);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return count / ((System.nanoTime() - started) / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.booking.model.BookState;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingArchiveServiceTest {
+    @Autowired
+    private BookingArchiveService archiveService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void archiveMovesOnlyUnreferencedBookingsPastHorizon() {
+        User owner = userRepository.save(new User(0, "owner", "archive-owner@mail.com"));
+        User booker = userRepository.save(new User(0, "booker", "archive-booker@mail.com"));
+        Item item = itemRepository.save(new Item(0, "drill", "cordless drill", true, owner, null, 0, null, null, null));
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(2);
+        Booking finished = createBooking(item, booker, longAgo.minusDays(10));
+        Booking lastBooking = createBooking(item, booker, longAgo);
+        Booking recent = createBooking(item, booker, LocalDateTime.now().minusDays(3));
+        summaryRepository.save(new ItemBookingSummary(item.getId(), lastBooking, null));
+
+        archiveService.archive();
+
+        assertTrue(archivedBookingRepository.existsById(finished.getId()));
+        assertFalse(bookingRepository.existsById(finished.getId()));
+        assertTrue(bookingRepository.existsById(lastBooking.getId()));
+        assertFalse(archivedBookingRepository.existsById(lastBooking.getId()));
+        assertTrue(bookingRepository.existsById(recent.getId()));
+        assertFalse(archivedBookingRepository.existsById(recent.getId()));
+    }
+
+    @Test
+    void listingMergesHotAndArchivedBookingsByStart() {
+        User owner = userRepository.save(new User(0, "owner", "merge-owner@mail.com"));
+        User booker = userRepository.save(new User(0, "booker", "merge-booker@mail.com"));
+        Item item = itemRepository.save(new Item(0, "drill", "cordless drill", true, owner, null, 0, null, null, null));
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(2);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.add(createBooking(item, booker, LocalDateTime.now().minusDays(10 + i)).getId());
+        }
+        for (int i = 0; i < 3; i++) {
+            expected.add(createBooking(item, booker, longAgo.minusDays(10 + i)).getId());
+        }
+
+        archiveService.archive();
+
+        assertEquals(expected, ids(bookingService.getAll(booker.getId(), BookState.ALL, 0, 10)));
+        assertEquals(expected.subList(0, 2), ids(bookingService.getAll(booker.getId(), BookState.PAST, 0, 2)));
+        assertEquals(expected.subList(2, 4), ids(bookingService.getAll(booker.getId(), BookState.PAST, 2, 2)));
+        assertEquals(expected.subList(4, 6), ids(bookingService.getAllByUser(owner.getId(), BookState.ALL, 4, 2)));
+    }
+
+    private static List<Long> ids(List<ResponseBookingDto> bookings) {
+        return bookings.stream().map(ResponseBookingDto::getId).collect(Collectors.toList());
+    }
+
+    private Booking createBooking(Item item, User booker, LocalDateTime start) {
+        return bookingRepository.save(new Booking(0, start, start.plusDays(1), item, booker, item.getOwner().getId(),
+                BookStatus.APPROVED, 0));
+    }
+}
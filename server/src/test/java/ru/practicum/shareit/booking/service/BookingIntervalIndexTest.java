@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class BookingIntervalIndexTest {
+    @Autowired
+    private BookingIntervalIndex intervalIndex;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rolledBackReservationLeavesNoIntervalWhenIndexIsLoadedAfterFlush() {
+        User owner = userRepository.save(new User(0, "owner", "interval-owner@mail.com"));
+        User booker = userRepository.save(new User(0, "booker", "interval-booker@mail.com"));
+        Item item = itemRepository.save(new Item(0, "drill", "cordless drill", true, owner, null, 0, null, null, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(new Booking(0, start, start.plusHours(1), item, booker, owner.getId(),
+                BookStatus.WAITING, 0));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Booking approved = bookingRepository.findById(booking.getId()).orElseThrow();
+            approved.setStatus(BookStatus.APPROVED);
+            intervalIndex.reserve(bookingRepository.saveAndFlush(approved));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(intervalIndex.overlaps(item.getId(), start, start.plusHours(1)));
+    }
+}
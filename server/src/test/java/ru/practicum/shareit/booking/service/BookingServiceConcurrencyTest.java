@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.booking.model.BookStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.booking.BookingStatusException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+class BookingServiceConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 25;
+    private static final int BENCHMARK_ROUNDS = 200;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final AtomicLong emails = new AtomicLong();
+    private User owner;
+    private User booker;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void createUsers() {
+        owner = userRepository.save(new User(0, "owner", "race-owner" + emails.incrementAndGet() + "@mail.com"));
+        booker = userRepository.save(new User(0, "booker", "race-booker" + emails.incrementAndGet() + "@mail.com"));
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @AfterAll
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void parallelAcceptsOfSameBookingHaveExactlyOneWinner() throws Exception {
+        Item item = createItem();
+        for (int round = 0; round < ROUNDS; round++) {
+            Booking booking = createBooking(item, start.plusDays(round), start.plusDays(round).plusHours(1));
+            List<Callable<Object>> accepts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean approved = i % 2 == 0;
+                accepts.add(() -> bookingService.accept(booking.getId(), owner.getId(), approved));
+            }
+
+            List<Object> outcomes = race(accepts);
+
+            assertEquals(1, outcomes.stream().filter(outcome -> !(outcome instanceof Exception)).count(),
+                    () -> "Round " + booking.getId() + " outcomes: " + outcomes);
+            BookStatus status = bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+            assertEquals(1, outcomes.stream()
+                    .filter(outcome -> outcome instanceof ResponseBookingDto)
+                    .filter(outcome -> ((ResponseBookingDto) outcome).getStatus() == status)
+                    .count(), () -> "Winner does not match stored status " + status + ": " + outcomes);
+        }
+    }
+
+    @Test
+    void parallelApprovalsOfOverlappingBookingsApproveExactlyOne() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Item item = createItem();
+            List<Callable<Object>> accepts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Booking booking = createBooking(item, start.plusMinutes(i), start.plusHours(1).plusMinutes(i));
+                accepts.add(() -> bookingService.accept(booking.getId(), owner.getId(), true));
+            }
+
+            List<Object> outcomes = race(accepts);
+
+            assertEquals(1, outcomes.stream().filter(outcome -> !(outcome instanceof Exception)).count(),
+                    () -> "Item " + item.getId() + " outcomes: " + outcomes);
+            assertEquals(1, bookingRepository.findAllByItemIdAndStatusAndEndIsAfter(item.getId(), BookStatus.APPROVED,
+                    LocalDateTime.now()).size());
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void optimisticDecisionsOutpacePessimisticRowLocks() throws Exception {
+        Item item = createItem();
+        long optimistic = decisionsPerSecond(item, 0, LockModeType.NONE);
+        long pessimistic = decisionsPerSecond(item, BENCHMARK_ROUNDS, LockModeType.PESSIMISTIC_WRITE);
+        log.info("{} contended decisions over {} threads: {}/s with version checks, {}/s with pessimistic row locks",
+                BENCHMARK_ROUNDS, THREADS, optimistic, pessimistic);
+    }
+
+    private long decisionsPerSecond(Item item, int firstRound, LockModeType lockMode) throws Exception {
+        List<Booking> bookings = new ArrayList<>();
+        for (int round = firstRound; round < firstRound + BENCHMARK_ROUNDS; round++) {
+            bookings.add(createBooking(item, start.plusDays(round), start.plusDays(round).plusHours(1)));
+        }
+        long started = System.nanoTime();
+        for (Booking booking : bookings) {
+            List<Callable<Object>> decisions = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                decisions.add(() -> transactionTemplate.execute(status -> {
+                    Booking found = entityManager.find(Booking.class, booking.getId(), lockMode);
+                    if (found.getStatus() != BookStatus.WAITING) {
+                        throw new BookingStatusException(String.format("Booking by id %d status already changed", booking.getId()));
+                    }
+                    found.setStatus(BookStatus.REJECTED);
+                    entityManager.flush();
+                    return found;
+                }));
+            }
+            race(decisions);
+        }
+        return Math.round(BENCHMARK_ROUNDS / ((System.nanoTime() - started) / 1_000_000_000.0));
+    }
+
+    private List<Object> race(List<Callable<Object>> tasks) throws Exception {
+        CountDownLatch ready = new CountDownLatch(tasks.size());
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Callable<Object> task : tasks) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                try {
+                    return task.call();
+                } catch (Exception e) {
+                    return e;
+                }
+            }));
+        }
+        ready.await();
+        go.countDown();
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get());
+        }
+        return outcomes;
+    }
+
+    private Item createItem() {
+        return itemRepository.save(new Item(0, "drill", "cordless drill", true, owner, null, 0, null, null, null));
+    }
+
+    private Booking createBooking(Item item, LocalDateTime from, LocalDateTime to) {
+        return bookingRepository.save(new Booking(0, from, to, item, booker, owner.getId(), BookStatus.WAITING, 0));
+    }
+}
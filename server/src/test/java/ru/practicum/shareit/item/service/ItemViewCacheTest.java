@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemViewCacheTest {
+    private static final long ITEM_ID = 1;
+    private static final long OWNER_ID = 10;
+    private static final long USER_ID = 20;
+
+    private final ItemViewCache cache = new ItemViewCache(3, 300, new SimpleMeterRegistry());
+
+    @Test
+    void putIsKeptWhenAnotherItemIsEvictedDuringLoad() {
+        long generation = cache.generation();
+        cache.evict(ITEM_ID + 1);
+        cache.put(generation, OWNER_ID, view(), false, null);
+
+        assertTrue(cache.get(ITEM_ID, USER_ID).isPresent());
+    }
+
+    @Test
+    void putIsDiscardedWhenSameItemIsEvictedDuringLoad() {
+        long generation = cache.generation();
+        cache.evict(ITEM_ID);
+        cache.put(generation, OWNER_ID, view(), false, null);
+
+        assertFalse(cache.get(ITEM_ID, USER_ID).isPresent());
+    }
+
+    @Test
+    void putIsDiscardedWhenEvictionHistoryIsTrimmedDuringLoad() {
+        long generation = cache.generation();
+        cache.evict(ITEM_ID);
+        for (long itemId = ITEM_ID + 1; itemId <= ITEM_ID + 10; itemId++) {
+            cache.evict(itemId);
+        }
+        cache.put(generation, OWNER_ID, view(), false, null);
+
+        assertFalse(cache.get(ITEM_ID, USER_ID).isPresent());
+    }
+
+    @Test
+    void putIsKeptWhenLoadStartsAfterEviction() {
+        cache.evict(ITEM_ID);
+        long generation = cache.generation();
+        cache.put(generation, OWNER_ID, view(), false, null);
+
+        assertTrue(cache.get(ITEM_ID, USER_ID).isPresent());
+    }
+
+    private static ItemDto view() {
+        return new ItemDto(ITEM_ID, "drill", "cordless drill", true, null, null, List.of(), 0);
+    }
+}
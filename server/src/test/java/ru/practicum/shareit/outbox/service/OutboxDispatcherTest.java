@@ -0,0 +1,21 @@
+package ru.practicum.shareit.outbox.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "shareit.outbox.sink.log.enabled=false")
+class OutboxDispatcherTest {
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void startsWithoutSinks() {
+        assertEquals(0, context.getBeansOfType(OutboxSink.class).size());
+        assertEquals(1, context.getBeansOfType(OutboxDispatcher.class).size());
+    }
+}